@@ -0,0 +1,122 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateRotationalJoint;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.ActuationKernel;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.RotationalJoint;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.ScalarActuationKernel;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Voxel;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.vector.VectorActuationKernel;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ActuationBenchmark {
+
+  private static final double DT = 1d / 60d;
+
+  @Param({"scalar", "vector"})
+  public String kernelType;
+
+  @Param({"20"})
+  public int side;
+
+  private ActuationKernel kernel;
+  private double activation;
+
+  @Setup
+  public void setup() {
+    kernel =
+        switch (kernelType) {
+          case "scalar" -> new ScalarActuationKernel();
+          case "vector" -> new VectorActuationKernel();
+          default -> throw new IllegalArgumentException(
+              "Unknown kernel type %s".formatted(kernelType));
+        };
+    // bodies are built by an engine, then moved to the benchmarked kernel
+    Dyn4JEngine engine = new Dyn4JEngine();
+    EmbodiedAgent agent =
+        (EmbodiedAgent)
+            BenchmarkUtils.build(
+                """
+                s.a.centralizedNumGridVSR(
+                  body=s.a.vsr.gridBody(
+                    shape=s.a.vsr.s.worm(w=%d;h=%d);
+                    sensorizingFunction=s.a.vsr.sf.uniform(sensors=[s.s.ar();s.s.rv(a=0)])
+                  );
+                  function=ds.num.mlp()
+                )
+                """
+                    .formatted(side, side));
+    BenchmarkUtils.placeOnTerrain(engine, agent, BenchmarkUtils.buildTerrain("flat"));
+    for (Body body : agent.bodyParts()) {
+      if (body instanceof Voxel voxel) {
+        voxel.attach(kernel);
+      }
+    }
+    for (int i = 0; i < side * side; i++) {
+      Body body =
+          engine
+              .perform(
+                  new CreateRotationalJoint(
+                      2,
+                      1,
+                      1,
+                      new io.github.ericmedvet.mrsim2d.core.bodies.RotationalJoint.Motor(),
+                      new DoubleRange(-Math.PI / 2d, Math.PI / 2d)))
+              .outcome()
+              .orElseThrow();
+      ((RotationalJoint) body).attach(kernel);
+    }
+    activation = 0.5d;
+  }
+
+  @Benchmark
+  public void actuateMotors() {
+    kernel.actuateMotors(DT);
+  }
+
+  @Benchmark
+  public void actuateSprings() {
+    activation = -activation;
+    kernel.actuateSprings(0, kernel.nOfSprings(), activation);
+    kernel.applySprings();
+  }
+}
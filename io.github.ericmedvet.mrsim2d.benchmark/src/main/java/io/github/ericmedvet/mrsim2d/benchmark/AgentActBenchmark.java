@@ -0,0 +1,89 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.NumGridVSR;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AgentActBenchmark {
+
+  private static final int N_OF_WARMUP_TICKS = 100;
+
+  @Param({
+    "ball-vsr-reactive",
+    "biped-vsr-reactive",
+    "worm-vsr-reactive",
+    "biped-vsr-centralized-mlp",
+    "biped-vsr-centralized-drn",
+    "tripod-vsr-distributed-mlp"
+  })
+  public String agentName;
+
+  private NumGridVSR agent;
+  private List<ActionOutcome<?, ?>> actionOutcomes;
+  private double t;
+
+  @Setup
+  public void setup() {
+    EmbodiedAgent embodiedAgent = BenchmarkUtils.buildAgent(agentName);
+    if (!(embodiedAgent instanceof NumGridVSR numGridVSR)) {
+      throw new IllegalArgumentException("Agent %s is not a NumGridVSR".formatted(agentName));
+    }
+    agent = numGridVSR;
+    // run the agent for a while, to get realistic outcomes of its last actions
+    Dyn4JEngine engine = new Dyn4JEngine();
+    BenchmarkUtils.placeOnTerrain(engine, agent, BenchmarkUtils.buildTerrain("flat"));
+    Snapshot snapshot = null;
+    for (int i = 0; i < N_OF_WARMUP_TICKS; i++) {
+      snapshot = engine.tick();
+    }
+    actionOutcomes = snapshot.actionOutcomes().stream().filter(ao -> ao.agent() == agent).toList();
+    t = engine.t();
+  }
+
+  @Benchmark
+  public List<? extends Action<?>> act() {
+    return agent.act(t, actionOutcomes);
+  }
+}
@@ -0,0 +1,83 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.stream.Collectors;
+
+public class BenchmarkUtils {
+
+  private static final NamedBuilder<Object> NB = NamedBuilder.fromDiscovery();
+
+  private BenchmarkUtils() {}
+
+  public static String agentDescription(String agentName) {
+    // agent descriptions are the ones of the sample module
+    InputStream inputStream =
+        BenchmarkUtils.class.getResourceAsStream("/agents/%s.txt".formatted(agentName));
+    if (inputStream == null) {
+      throw new IllegalArgumentException("Cannot find agent description %s".formatted(agentName));
+    }
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+      return br.lines().collect(Collectors.joining());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public static Object build(String description) {
+    return NB.build(description);
+  }
+
+  public static EmbodiedAgent buildAgent(String agentName) {
+    return (EmbodiedAgent) build(agentDescription(agentName));
+  }
+
+  public static Terrain buildTerrain(String terrainName) {
+    return (Terrain) build("s.t.%s()".formatted(terrainName));
+  }
+
+  public static void placeOnTerrain(Engine engine, EmbodiedAgent agent, Terrain terrain) {
+    engine.perform(new CreateUnmovableBody(terrain.poly()));
+    engine.perform(new AddAgent(agent));
+    BoundingBox agentBB = agent.boundingBox();
+    engine.perform(
+        new TranslateAgent(
+            agent, new Point(terrain.withinBordersXRange().min() + 1 - agentBB.min().x(), 0)));
+    agentBB = agent.boundingBox();
+    engine.perform(
+        new TranslateAgent(
+            agent, new Point(0, terrain.maxHeightAt(agentBB.xRange()) + 0.25 - agentBB.min().y())));
+  }
+}
@@ -0,0 +1,79 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.engine.SnapshotPolicy;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineTickBenchmark {
+
+  @Param({"1", "3", "5", "10", "20"})
+  public int side;
+
+  private Dyn4JEngine engine;
+
+  @Setup(Level.Iteration)
+  public void setup() {
+    // the engine is rebuilt at every iteration, otherwise the agent eventually leaves the terrain
+    engine = new Dyn4JEngine();
+    engine.setSnapshotPolicy(SnapshotPolicy.NONE);
+    EmbodiedAgent agent =
+        (EmbodiedAgent)
+            BenchmarkUtils.build(
+                """
+                s.a.centralizedNumGridVSR(
+                  body=s.a.vsr.gridBody(
+                    shape=s.a.vsr.s.worm(w=%d;h=%d);
+                    sensorizingFunction=s.a.vsr.sf.uniform(sensors=[s.s.ar();s.s.rv(a=0)])
+                  );
+                  function=ds.num.mlp()
+                )
+                """
+                    .formatted(side, side));
+    BenchmarkUtils.placeOnTerrain(engine, agent, BenchmarkUtils.buildTerrain("flat"));
+  }
+
+  @Benchmark
+  public Snapshot tick() {
+    return engine.tick();
+  }
+}
@@ -0,0 +1,71 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LocomotionBenchmark {
+
+  private static final double DURATION = 10;
+
+  @Param({"flat", "hilly"})
+  public String terrainName;
+
+  @Param({"biped-vsr-centralized-mlp", "worm-vsr-reactive"})
+  public String agentName;
+
+  private Locomotion locomotion;
+  private String agentDescription;
+
+  @Setup
+  public void setup() {
+    locomotion = new Locomotion(DURATION, BenchmarkUtils.buildTerrain(terrainName));
+    agentDescription = BenchmarkUtils.agentDescription(agentName);
+  }
+
+  @Benchmark
+  public Outcome<AgentsObservation> run() {
+    return locomotion.run(
+        () -> (EmbodiedAgent) BenchmarkUtils.build(agentDescription), new Dyn4JEngine());
+  }
+}
@@ -0,0 +1,76 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutcomeBenchmark {
+
+  @Param({"10", "60"})
+  public double duration;
+
+  private SortedMap<Double, AgentsObservation> observations;
+
+  @Setup
+  public void setup() {
+    observations =
+        new Locomotion(duration, BenchmarkUtils.buildTerrain("flat"))
+            .run(() -> BenchmarkUtils.buildAgent("biped-vsr-reactive"), new Dyn4JEngine())
+            .getObservations();
+  }
+
+  @Benchmark
+  public void aggregate(Blackhole blackhole) {
+    // a new outcome at each invocation, since metrics are cached
+    Outcome<AgentsObservation> outcome = new Outcome<>(observations);
+    blackhole.consume(outcome.firstAgentXVelocity());
+    blackhole.consume(outcome.firstAgentAverageY());
+    blackhole.consume(outcome.firstAgentAverageTerrainHeight());
+    blackhole.consume(outcome.allAgentsAverageHeight());
+    blackhole.consume(outcome.firstAgentMaxRelativeJumpHeight());
+    blackhole.consume(
+        outcome.subOutcome(new DoubleRange(duration / 2d, duration)).firstAgentXVelocity());
+  }
+}
@@ -0,0 +1,102 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.util.SpatialMap;
+import java.util.Collection;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialMapBenchmark {
+
+  private static final int N_OF_QUERIES = 1024;
+  private static final double SIDE = 50;
+
+  @Param({"100", "1000", "10000"})
+  public int nOfItems;
+
+  @Param({"0.5", "2"})
+  public double range;
+
+  @Param({"HASH", "PACKED"})
+  public String type;
+
+  private final Counter counter = new Counter();
+  private SpatialMap<Integer> map;
+  private Point[] queries;
+  private int queryIndex;
+
+  private static final class Counter implements Consumer<Integer> {
+    private int count;
+
+    @Override
+    public void accept(Integer i) {
+      count = count + 1;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    // same cell size as the default nfc distance range of the engine
+    map = SpatialMap.Type.valueOf(type).create(0.5);
+    Random random = new Random(1);
+    for (int i = 0; i < nOfItems; i++) {
+      map.add(new Point(random.nextDouble() * SIDE, random.nextDouble() * SIDE), i);
+    }
+    queries = new Point[N_OF_QUERIES];
+    for (int i = 0; i < N_OF_QUERIES; i++) {
+      queries[i] = new Point(random.nextDouble() * SIDE, random.nextDouble() * SIDE);
+    }
+  }
+
+  @Benchmark
+  public Collection<Integer> get() {
+    queryIndex = (queryIndex + 1) % N_OF_QUERIES;
+    return map.get(queries[queryIndex], range);
+  }
+
+  @Benchmark
+  public int forEachWithin() {
+    queryIndex = (queryIndex + 1) % N_OF_QUERIES;
+    counter.count = 0;
+    map.forEachWithin(queries[queryIndex], range, counter);
+    return counter.count;
+  }
+}
@@ -0,0 +1,88 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-benchmark
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.benchmark;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TerrainBenchmark {
+
+  private static final int N_OF_QUERIES = 1024;
+
+  @Param({"flat", "hilly", "steppy"})
+  public String terrainName;
+
+  @Param({"100", "500"})
+  public double w;
+
+  private Terrain terrain;
+  private double[] xs;
+  private int queryIndex;
+
+  @Setup
+  public void setup() {
+    terrain = (Terrain) BenchmarkUtils.build("s.t.%s(w=%s)".formatted(terrainName, w));
+    Random random = new Random(1);
+    xs = new double[N_OF_QUERIES];
+    for (int i = 0; i < N_OF_QUERIES; i++) {
+      xs[i] =
+          terrain.withinBordersXRange().min()
+              + random.nextDouble() * terrain.withinBordersXRange().extent();
+    }
+  }
+
+  @Benchmark
+  public double heightAt() {
+    queryIndex = (queryIndex + 1) % N_OF_QUERIES;
+    return terrain.heightAt(xs[queryIndex]);
+  }
+
+  @Benchmark
+  public double maxHeightAt() {
+    queryIndex = (queryIndex + 1) % N_OF_QUERIES;
+    return terrain.maxHeightAt(new DoubleRange(xs[queryIndex], xs[queryIndex] + 5d));
+  }
+
+  @Benchmark
+  public double maxYAtX() {
+    queryIndex = (queryIndex + 1) % N_OF_QUERIES;
+    return PolyUtils.maxYAtX(terrain.poly(), xs[queryIndex]);
+  }
+}
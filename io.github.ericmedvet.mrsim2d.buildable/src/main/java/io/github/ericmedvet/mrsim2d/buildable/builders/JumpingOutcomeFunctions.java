@@ -22,10 +22,10 @@ package io.github.ericmedvet.mrsim2d.buildable.builders;
 
 import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
-import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
 import java.util.function.Function;
 
+// outcomes of runs stopped before transientTime give 0
 @Discoverable(prefixTemplate = "sim|s.task.jumping|j")
 public class JumpingOutcomeFunctions {
 
@@ -34,33 +34,30 @@ public class JumpingOutcomeFunctions {
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> avgBBMinY(
       @Param(value = "transientTime", dD = 5.0) double transientTime) {
-    return o ->
-        o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentAverageBBMinY();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentAverageBBMinY);
   }
 
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> avgY(
       @Param(value = "transientTime", dD = 5.0) double transientTime) {
-    return o -> o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentAverageY();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentAverageY);
   }
 
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> maxBBMinY(
       @Param(value = "transientTime", dD = 5.0) double transientTime) {
-    return o -> o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentMaxBBMinY();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentMaxBBMinY);
   }
 
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> maxMaxRelJumpH(
       @Param(value = "transientTime", dD = 5.0) double transientTime) {
-    return o ->
-        o.subOutcome(new DoubleRange(transientTime, o.duration()))
-            .firstAgentMaxRelativeJumpHeight();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentMaxRelativeJumpHeight);
   }
 
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> maxY(
       @Param(value = "transientTime", dD = 5.0) double transientTime) {
-    return o -> o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentMaxY();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentMaxY);
   }
 }
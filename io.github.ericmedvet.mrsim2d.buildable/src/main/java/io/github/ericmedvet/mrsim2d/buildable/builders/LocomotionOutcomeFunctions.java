@@ -22,10 +22,10 @@ package io.github.ericmedvet.mrsim2d.buildable.builders;
 
 import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
-import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
 import java.util.function.Function;
 
+// outcomes of runs stopped before transientTime give 0
 @Discoverable(prefixTemplate = "sim|s.task.locomotion|l")
 public class LocomotionOutcomeFunctions {
 
@@ -34,25 +34,27 @@ public class LocomotionOutcomeFunctions {
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> avgArea(
       @Param(value = "transientTime", dD = 0) double transientTime) {
-    return o -> o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentAverageArea();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentAverageArea);
   }
 
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> avgTerrainHeight(
       @Param(value = "transientTime", dD = 0) double transientTime) {
-    return o ->
-        o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentAverageTerrainHeight();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentAverageTerrainHeight);
   }
 
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> xDistance(
       @Param(value = "transientTime", dD = 0) double transientTime) {
-    return o -> o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentXDistance();
+    return o -> o.afterTransient(transientTime, Outcome::firstAgentXDistance);
   }
 
+  // a stopped agent is considered still from the stop to the planned end of the run
   @SuppressWarnings("unused")
   public static Function<Outcome<?>, Double> xVelocity(
       @Param(value = "transientTime", dD = 0) double transientTime) {
-    return o -> o.subOutcome(new DoubleRange(transientTime, o.duration())).firstAgentXVelocity();
+    return o ->
+        o.afterTransient(
+            transientTime, s -> s.firstAgentXDistance() / (s.duration() + o.missingDuration()));
   }
 }
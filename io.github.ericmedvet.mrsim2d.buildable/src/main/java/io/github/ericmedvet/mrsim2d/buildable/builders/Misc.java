@@ -26,6 +26,7 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
 import io.github.ericmedvet.mrsim2d.viewer.Drawer;
 import io.github.ericmedvet.mrsim2d.viewer.Drawers;
@@ -144,6 +145,14 @@ public class Misc {
     return () -> ServiceLoader.load(Engine.class).findFirst().orElseThrow();
   }
 
+  @SuppressWarnings("unused")
+  public static Outcome.Key outcomeKey(
+      @Param("metric") Outcome.Metric metric,
+      @Param("aggregate") Outcome.Aggregate aggregate,
+      @Param(value = "subject", dS = "first") Outcome.Subject subject) {
+    return new Outcome.Key(metric, aggregate, subject);
+  }
+
   @SuppressWarnings("unused")
   public static DoubleRange range(@Param("min") double min, @Param("max") double max) {
     return new DoubleRange(min, max);
@@ -0,0 +1,78 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-buildable
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.buildable.builders;
+
+import io.github.ericmedvet.jnb.core.Discoverable;
+import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
+import java.util.List;
+
+@Discoverable(prefixTemplate = "sim|s.stopCondition|sc")
+public class StopConditions {
+
+  private StopConditions() {}
+
+  @SuppressWarnings("unused")
+  public static StopCondition any(@Param("conditions") List<StopCondition> conditions) {
+    return StopCondition.any(conditions.toArray(StopCondition[]::new));
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition never() {
+    return StopCondition.NEVER;
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition noProgress(
+      @Param(value = "tWindow", dD = 5) double tWindow,
+      @Param(value = "minXDistance", dD = 0.5) double minXDistance) {
+    return StopCondition.noProgress(tWindow, minXDistance);
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition notFinite(
+      @Param(value = "maxAbsCoordinate", dD = 1e6) double maxAbsCoordinate) {
+    return StopCondition.notFinite(maxAbsCoordinate);
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition outOfBounds(
+      @Param("xRange") DoubleRange xRange, @Param("yRange") DoubleRange yRange) {
+    return StopCondition.outOfBounds(xRange, yRange);
+  }
+
+  @SuppressWarnings("unused")
+  public static StopCondition outOfTerrain(
+      @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain) {
+    return StopCondition.outOfTerrain(terrain);
+  }
+
+  // the duration is the one of the task; the threshold is the current value of the named
+  // StopCondition.Threshold, which the caller can update, e.g., to the current best x distance
+  @SuppressWarnings("unused")
+  public static StopCondition xDistanceBound(
+      @Param("maxXVelocity") double maxXVelocity,
+      @Param(value = "threshold", dS = "xDistance") String threshold) {
+    return StopCondition.xDistanceBound(maxXVelocity, StopCondition.Threshold.named(threshold));
+  }
+}
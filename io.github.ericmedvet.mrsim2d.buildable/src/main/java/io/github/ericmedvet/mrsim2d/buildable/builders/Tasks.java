@@ -22,41 +22,59 @@ package io.github.ericmedvet.mrsim2d.buildable.builders;
 
 import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.jsdynsym.grid.Grid;
 import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody;
+import io.github.ericmedvet.mrsim2d.core.geometry.StreamedTerrain;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.balancing.Balancing;
 import io.github.ericmedvet.mrsim2d.core.tasks.jumping.Jumping;
 import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.MultiLocomotion;
 import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.PrebuiltIndependentLocomotion;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.StreamedLocomotion;
 import io.github.ericmedvet.mrsim2d.core.tasks.piling.FallPiling;
 import io.github.ericmedvet.mrsim2d.core.tasks.piling.StandPiling;
-import java.util.random.RandomGenerator;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 @Discoverable(prefixTemplate = "sim|s.task")
 public class Tasks {
   private Tasks() {}
 
+  // agents positions are drawn from the generator of the engine running the task (seeded by its
+  // configuration), as a generator built here would be shared by all the runs
   @SuppressWarnings("unused")
   public static FallPiling fallPiling(
       @Param(value = "duration", dD = 45d) double duration,
       @Param(value = "fallInterval", dD = 5d) double fallInterval,
       @Param("nOfAgents") int nOfAgents,
       @Param(value = "xSigmaRatio", dD = 0.1d) double xSigmaRatio,
-      @Param(value = "randomGenerator", dNPM = "sim.defaultRG()") RandomGenerator randomGenerator,
       @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
       @Param(value = "yGapRatio", dD = 1d) double yGapRatio,
       @Param(value = "xGap", dD = 10d) double xGap) {
-
     return new FallPiling(
-        duration, fallInterval, nOfAgents, xSigmaRatio, randomGenerator, terrain, yGapRatio, xGap);
+        duration, fallInterval, nOfAgents, xSigmaRatio, null, terrain, yGapRatio, xGap);
   }
 
   @SuppressWarnings("unused")
   public static Jumping jumping(
       @Param(value = "duration", dD = 10) double duration,
-      @Param(value = "initialYGap", dD = 0.1) double initialYGap) {
-    return new Jumping(duration, initialYGap);
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param("streamedKeys") List<Outcome.Key> streamedKeys,
+      @Param("streamedTRanges") List<DoubleRange> streamedTRanges,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()")
+          StopCondition stopCondition,
+      @Param(value = "controlInterval", dD = 0) double controlInterval) {
+    return new Jumping(
+        duration,
+        initialYGap,
+        new LinkedHashSet<>(streamedKeys),
+        new LinkedHashSet<>(streamedTRanges),
+        stopCondition,
+        controlInterval);
   }
 
   @SuppressWarnings("unused")
@@ -73,11 +91,33 @@ public class Tasks {
 
   @SuppressWarnings("unused")
   public static Locomotion locomotion(
+      @Param(value = "duration", dD = 30) double duration,
+      @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
+      @Param(value = "initialXGap", dD = 1) double initialXGap,
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param("streamedKeys") List<Outcome.Key> streamedKeys,
+      @Param("streamedTRanges") List<DoubleRange> streamedTRanges,
+      @Param(value = "stopCondition", dNPM = "sim.stopCondition.never()")
+          StopCondition stopCondition,
+      @Param(value = "controlInterval", dD = 0) double controlInterval) {
+    return new Locomotion(
+        duration,
+        terrain,
+        initialXGap,
+        initialYGap,
+        new LinkedHashSet<>(streamedKeys),
+        new LinkedHashSet<>(streamedTRanges),
+        stopCondition,
+        controlInterval);
+  }
+
+  @SuppressWarnings("unused")
+  public static MultiLocomotion multiLocomotion(
       @Param(value = "duration", dD = 30) double duration,
       @Param(value = "terrain", dNPM = "sim.terrain.flat()") Terrain terrain,
       @Param(value = "initialXGap", dD = 1) double initialXGap,
       @Param(value = "initialYGap", dD = 0.1) double initialYGap) {
-    return new Locomotion(duration, terrain, initialXGap, initialYGap);
+    return new MultiLocomotion(duration, terrain, initialXGap, initialYGap);
   }
 
   @SuppressWarnings("unused")
@@ -90,6 +130,17 @@ public class Tasks {
     return new PrebuiltIndependentLocomotion(duration, terrain, initialXGap, initialYGap, shape);
   }
 
+  @SuppressWarnings("unused")
+  public static StreamedLocomotion streamedLocomotion(
+      @Param(value = "duration", dD = 30) double duration,
+      @Param(value = "terrain", dNPM = "sim.terrain.streamed()") StreamedTerrain terrain,
+      @Param(value = "initialXGap", dD = 1) double initialXGap,
+      @Param(value = "initialYGap", dD = 0.1) double initialYGap,
+      @Param(value = "aheadW", dD = 20) double aheadW,
+      @Param(value = "behindW", dD = 10) double behindW) {
+    return new StreamedLocomotion(duration, terrain, initialXGap, initialYGap, aheadW, behindW);
+  }
+
   @SuppressWarnings("unused")
   public static StandPiling standPiling(
       @Param(value = "duration", dD = 45) double duration,
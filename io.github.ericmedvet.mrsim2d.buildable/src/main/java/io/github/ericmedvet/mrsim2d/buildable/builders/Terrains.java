@@ -24,6 +24,7 @@ import io.github.ericmedvet.jnb.core.Discoverable;
 import io.github.ericmedvet.jnb.core.Param;
 import io.github.ericmedvet.mrsim2d.core.geometry.Path;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.StreamedTerrain;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
 import java.util.Random;
 import java.util.random.RandomGenerator;
@@ -37,6 +38,7 @@ public class Terrains {
   public static final double CHUNK_H = 0.75d;
   public static final double BORDER_W = 10d;
   public static final double ANGLE = 10d;
+  public static final double STREAMING_CHUNK_W = 20d;
 
   private Terrains() {}
 
@@ -101,6 +103,19 @@ public class Terrains {
     return Terrain.fromPath(path, h, borderW, borderH);
   }
 
+  @SuppressWarnings("unused")
+  public static StreamedTerrain streamed(
+      @Param(value = "profile", dS = "hilly") StreamedTerrain.Profile profile,
+      @Param(value = "h", dD = H) Double h,
+      @Param(value = "borderW", dD = BORDER_W) Double borderW,
+      @Param(value = "borderH", dD = BORDER_H) Double borderH,
+      @Param(value = "stepW", dD = CHUNK_W) Double stepW,
+      @Param(value = "stepH", dD = CHUNK_H) Double stepH,
+      @Param(value = "chunkW", dD = STREAMING_CHUNK_W) Double chunkW,
+      @Param(value = "seed", dI = 1) Integer seed) {
+    return new StreamedTerrain(profile, stepW, stepH, chunkW, h, borderW, borderH, seed);
+  }
+
   @SuppressWarnings("unused")
   public static Terrain uphill(
       @Param(value = "w", dD = W) Double w,
@@ -20,6 +20,66 @@
 
 package io.github.ericmedvet.mrsim2d.core;
 
+import java.util.Objects;
 import java.util.Optional;
 
-public record ActionOutcome<A extends Action<O>, O>(Agent agent, A action, Optional<O> outcome) {}
+// the outcomes given to an agent at each tick are the same instances, refilled by the engine: they
+// should not be kept across ticks; outcome() builds its optional only when invoked
+public final class ActionOutcome<A extends Action<O>, O> {
+
+  private Agent agent;
+  private A action;
+  private O value;
+
+  public ActionOutcome(Agent agent, A action, Optional<O> outcome) {
+    this.agent = agent;
+    this.action = action;
+    value = outcome.orElse(null);
+  }
+
+  // an empty holder, to be filled with set()
+  public ActionOutcome() {}
+
+  public A action() {
+    return action;
+  }
+
+  public Agent agent() {
+    return agent;
+  }
+
+  public Optional<O> outcome() {
+    return Optional.ofNullable(value);
+  }
+
+  // refills this holder, possibly with an action of another type
+  @SuppressWarnings("unchecked")
+  public <A1 extends Action<O1>, O1> ActionOutcome<A1, O1> set(Agent agent, A1 action, O1 value) {
+    ActionOutcome<A1, O1> outcome = (ActionOutcome<A1, O1>) this;
+    outcome.agent = agent;
+    outcome.action = action;
+    outcome.value = value;
+    return outcome;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    return o instanceof ActionOutcome<?, ?> other
+        && Objects.equals(agent, other.agent)
+        && Objects.equals(action, other.action)
+        && Objects.equals(value, other.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(agent, action, value);
+  }
+
+  @Override
+  public String toString() {
+    return "ActionOutcome[agent=%s, action=%s, outcome=%s]".formatted(agent, action, outcome());
+  }
+}
@@ -0,0 +1,45 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.actions;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.bodies.RotationalJoint;
+import java.util.List;
+
+// actuates all the joints at once, taking the value of the i-th joint from position i of values
+public record ActuateRotationalJoints(List<RotationalJoint> bodies, double[] values)
+    implements Action<List<RotationalJoint>> {
+  public ActuateRotationalJoints {
+    if (bodies.size() != values.length) {
+      throw new IllegalArgumentException(
+          "Wrong number of values: %d expected, %d found".formatted(bodies.size(), values.length));
+    }
+  }
+
+  public ActuateRotationalJoints(List<RotationalJoint> bodies) {
+    this(bodies, new double[bodies.size()]);
+  }
+
+  public DoubleRange range() {
+    return DoubleRange.SYMMETRIC_UNIT;
+  }
+}
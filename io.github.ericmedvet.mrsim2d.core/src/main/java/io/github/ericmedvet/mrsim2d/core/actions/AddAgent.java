@@ -23,4 +23,17 @@ package io.github.ericmedvet.mrsim2d.core.actions;
 import io.github.ericmedvet.mrsim2d.core.Action;
 import io.github.ericmedvet.mrsim2d.core.Agent;
 
-public record AddAgent(Agent agent) implements Action<Agent> {}
+// with a positive control interval, the agent acts only once every controlInterval and, in
+// between, the engine keeps applying its last actuations
+public record AddAgent(Agent agent, double controlInterval) implements Action<Agent> {
+  public AddAgent {
+    if (controlInterval < 0) {
+      throw new IllegalArgumentException(
+          "Control interval must be >= 0: %f".formatted(controlInterval));
+    }
+  }
+
+  public AddAgent(Agent agent) {
+    this(agent, 0d);
+  }
+}
@@ -21,18 +21,14 @@
 package io.github.ericmedvet.mrsim2d.core.actions;
 
 import io.github.ericmedvet.jsdynsym.core.DoubleRange;
-import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
-import io.github.ericmedvet.mrsim2d.core.Agent;
-import io.github.ericmedvet.mrsim2d.core.SelfDescribedAction;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
-import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 
-public record SenseAngle(Body body) implements Sense<Body>, SelfDescribedAction<Double> {
+public record SenseAngle(Body body) implements SelfDescribedSense<Body> {
 
   private static final DoubleRange RANGE = new DoubleRange(-Math.PI, Math.PI);
 
   @Override
-  public Double perform(ActionPerformer performer, Agent agent) throws ActionException {
+  public double sense() {
     double a = body.angle();
     if (a > Math.PI) {
       a = a - 2d * Math.PI;
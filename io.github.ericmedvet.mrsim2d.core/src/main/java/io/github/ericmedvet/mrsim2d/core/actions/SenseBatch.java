@@ -0,0 +1,38 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.actions;
+
+import io.github.ericmedvet.mrsim2d.core.Action;
+import java.util.List;
+
+// senses all the senses at once, writing each sensed value in the corresponding position of values
+public record SenseBatch(List<Sense<?>> senses, double[] values) implements Action<double[]> {
+  public SenseBatch {
+    if (senses.size() != values.length) {
+      throw new IllegalArgumentException(
+          "Wrong number of values: %d expected, %d found".formatted(senses.size(), values.length));
+    }
+  }
+
+  public SenseBatch(List<Sense<?>> senses) {
+    this(senses, new double[senses.size()]);
+  }
+}
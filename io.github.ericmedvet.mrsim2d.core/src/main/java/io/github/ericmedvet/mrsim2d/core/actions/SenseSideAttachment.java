@@ -21,21 +21,17 @@
 package io.github.ericmedvet.mrsim2d.core.actions;
 
 import io.github.ericmedvet.jsdynsym.core.DoubleRange;
-import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
-import io.github.ericmedvet.mrsim2d.core.Agent;
-import io.github.ericmedvet.mrsim2d.core.SelfDescribedAction;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
-import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 import java.util.Collection;
 import java.util.List;
 
 public record SenseSideAttachment(Voxel.Side side, Voxel body)
-    implements Sense<Voxel>, SelfDescribedAction<Double> {
+    implements SelfDescribedSense<Voxel> {
 
   @Override
-  public Double perform(ActionPerformer performer, Agent agent) throws ActionException {
+  public double sense() {
     // consider side anchors
     Collection<Anchor> anchors = body.anchorsOn(side);
     if (anchors.isEmpty()) {
@@ -24,9 +24,11 @@ import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.jsdynsym.grid.Grid;
 import io.github.ericmedvet.mrsim2d.core.Action;
 import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
 import io.github.ericmedvet.mrsim2d.core.Sensor;
-import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxel;
+import io.github.ericmedvet.mrsim2d.core.actions.ActuateVoxels;
 import io.github.ericmedvet.mrsim2d.core.actions.Sense;
+import io.github.ericmedvet.mrsim2d.core.actions.SenseBatch;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.bodies.Voxel;
 import java.util.*;
@@ -35,12 +37,12 @@ public abstract class NumGridVSR extends AbstractGridVSR {
 
   protected static final DoubleRange INPUT_RANGE = DoubleRange.SYMMETRIC_UNIT;
   protected static final DoubleRange OUTPUT_RANGE = DoubleRange.SYMMETRIC_UNIT;
-  private static final Voxel.Side[] SIDES =
-      new Voxel.Side[] {Voxel.Side.N, Voxel.Side.E, Voxel.Side.S, Voxel.Side.W};
   private final Grid<List<Sensor<? super Body>>> sensorsGrid;
   private final Grid<double[]> inputsGrid;
-  private final Grid<double[]> outputGrid;
   private final GridBody body;
+  private SenseBatch senseBatch;
+  private List<Grid.Key> voxelKeys;
+  private ActuateVoxels actuateVoxels;
 
   public NumGridVSR(GridBody body, double voxelSideLength, double voxelMass) {
     super(body.grid().map(GridBody.SensorizedElement::element), voxelSideLength, voxelMass);
@@ -53,7 +55,6 @@ public abstract class NumGridVSR extends AbstractGridVSR {
                     e.element().type().equals(GridBody.VoxelType.NONE)
                         ? null
                         : new double[e.sensors().size()]);
-    outputGrid = bodyGrid.map(v -> v != null ? new double[SIDES.length] : null);
   }
 
   public NumGridVSR(GridBody body) {
@@ -62,59 +63,64 @@ public abstract class NumGridVSR extends AbstractGridVSR {
 
   protected abstract Grid<double[]> computeActuationValues(double t, Grid<double[]> inputsGrid);
 
-  private static EnumMap<Voxel.Side, Double> sideMap(double[] values) {
-    return new EnumMap<>(
-        Map.of(
-            Voxel.Side.N, values[0],
-            Voxel.Side.E, values[1],
-            Voxel.Side.S, values[2],
-            Voxel.Side.W, values[3]));
+  @Override
+  public void assemble(ActionPerformer actionPerformer) {
+    // bodies are new, hence senses have to be rebuilt
+    senseBatch = null;
+    actuateVoxels = null;
+    super.assemble(actionPerformer);
   }
 
   @Override
   public List<? extends Action<?>> act(double t, List<ActionOutcome<?, ?>> previousActionOutcomes) {
     // read inputs from last request
-    if (!previousActionOutcomes.isEmpty()) {
+    if (senseBatch != null && !previousActionOutcomes.isEmpty()) {
+      List<Sense<?>> senses = senseBatch.senses();
+      double[] values = senseBatch.values();
       int c = 0;
       for (Grid.Key key : inputsGrid.keys()) {
         double[] inputs = inputsGrid.get(key);
         if (inputs != null) {
           for (int i = 0; i < inputs.length; i++) {
-            ActionOutcome<?, ?> outcome = previousActionOutcomes.get(c);
-            if (outcome.action() instanceof Sense<?>) {
-              @SuppressWarnings("unchecked")
-              ActionOutcome<? extends Sense<Voxel>, Double> o =
-                  (ActionOutcome<? extends Sense<Voxel>, Double>) outcome;
-              inputs[i] =
-                  INPUT_RANGE.denormalize(o.action().range().normalize(o.outcome().orElse(0d)));
-              c = c + 1;
-            }
+            inputs[i] = INPUT_RANGE.denormalize(senses.get(c).range().normalize(values[c]));
+            c = c + 1;
           }
         }
       }
     }
+    // generate next sense and actuation actions, once for all, since bodies do not change
+    if (senseBatch == null) {
+      senseBatch =
+          new SenseBatch(
+              bodyGrid.entries().stream()
+                  .filter(e -> e.value() != null)
+                  .map(
+                      e ->
+                          sensorsGrid.get(e.key()).stream()
+                              .<Sense<?>>map(f -> f.apply(e.value()))
+                              .toList())
+                  .flatMap(Collection::stream)
+                  .toList());
+      voxelKeys =
+          bodyGrid.entries().stream()
+              .filter(e -> e.value() instanceof Voxel)
+              .map(Grid.Entry::key)
+              .toList();
+      actuateVoxels =
+          new ActuateVoxels(voxelKeys.stream().map(k -> (Voxel) bodyGrid.get(k)).toList());
+    }
     // compute actuation
-    computeActuationValues(t, inputsGrid)
-        .entries()
-        .forEach(
-            e ->
-                outputGrid.set(
-                    e.key(), Arrays.stream(e.value()).map(OUTPUT_RANGE::clip).toArray()));
-    // generate next sense actions
-    List<Action<?>> actions = new ArrayList<>();
-    actions.addAll(
-        bodyGrid.entries().stream()
-            .filter(e -> e.value() != null)
-            .map(e -> sensorsGrid.get(e.key()).stream().map(f -> f.apply(e.value())).toList())
-            .flatMap(Collection::stream)
-            .toList());
-    // generate actuation actions
-    actions.addAll(
-        bodyGrid.entries().stream()
-            .filter(e -> e.value() instanceof Voxel)
-            .map(e -> new ActuateVoxel((Voxel) e.value(), sideMap(outputGrid.get(e.key()))))
-            .toList());
-    return actions;
+    Grid<double[]> outputGrid = computeActuationValues(t, inputsGrid);
+    double[] values = actuateVoxels.values();
+    int c = 0;
+    for (Grid.Key key : voxelKeys) {
+      double[] outputs = outputGrid.get(key);
+      for (int i = 0; i < ActuateVoxels.N_OF_SIDES; i = i + 1) {
+        values[c] = OUTPUT_RANGE.clip(outputs[i]);
+        c = c + 1;
+      }
+    }
+    return List.of(senseBatch, actuateVoxels);
   }
 
   public GridBody getBody() {
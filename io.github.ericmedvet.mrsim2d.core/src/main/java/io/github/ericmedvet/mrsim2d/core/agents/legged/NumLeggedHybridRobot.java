@@ -24,15 +24,16 @@ import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.jsdynsym.core.numerical.NumericalDynamicalSystem;
 import io.github.ericmedvet.mrsim2d.core.Action;
 import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
 import io.github.ericmedvet.mrsim2d.core.NumBrained;
 import io.github.ericmedvet.mrsim2d.core.Sensor;
-import io.github.ericmedvet.mrsim2d.core.actions.ActuateRotationalJoint;
+import io.github.ericmedvet.mrsim2d.core.actions.ActuateRotationalJoints;
 import io.github.ericmedvet.mrsim2d.core.actions.Sense;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.IntStream;
 
 public class NumLeggedHybridRobot extends AbstractLeggedHybridRobot implements NumBrained {
 
@@ -46,6 +47,7 @@ public class NumLeggedHybridRobot extends AbstractLeggedHybridRobot implements N
 
   private double[] inputs;
   private double[] outputs;
+  private ActuateRotationalJoints actuateRotationalJoints;
 
   public NumLeggedHybridRobot(
       List<Leg> legs,
@@ -74,6 +76,13 @@ public class NumLeggedHybridRobot extends AbstractLeggedHybridRobot implements N
     return legs.stream().mapToInt(m -> m.legChunks().size()).sum();
   }
 
+  @Override
+  public void assemble(ActionPerformer performer) throws ActionException {
+    // joints are new, hence the actuation action has to be rebuilt
+    actuateRotationalJoints = null;
+    super.assemble(performer);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public List<? extends Action<?>> act(double t, List<ActionOutcome<?, ?>> previousActionOutcomes) {
@@ -111,14 +120,16 @@ public class NumLeggedHybridRobot extends AbstractLeggedHybridRobot implements N
       }
     }
     headSensors.forEach(s -> actions.add(((Sensor<Body>) s).apply(head)));
-    // generate actuation actions
-    IntStream.range(0, outputs.length)
-        .forEach(
-            i ->
-                actions.add(
-                    new ActuateRotationalJoint(
-                        rotationalJoints.get(i),
-                        ANGLE_RANGE.denormalize(OUTPUT_RANGE.normalize(outputs[i])))));
+    // generate actuation action, once for all, since joints do not change
+    if (actuateRotationalJoints == null) {
+      actuateRotationalJoints =
+          new ActuateRotationalJoints(List.copyOf(rotationalJoints.subList(0, outputs.length)));
+    }
+    double[] values = actuateRotationalJoints.values();
+    for (int i = 0; i < outputs.length; i = i + 1) {
+      values[i] = ANGLE_RANGE.denormalize(OUTPUT_RANGE.normalize(outputs[i]));
+    }
+    actions.add(actuateRotationalJoints);
     return actions;
   }
 
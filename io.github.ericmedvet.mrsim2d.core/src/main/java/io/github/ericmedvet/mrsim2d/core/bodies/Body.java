@@ -31,4 +31,19 @@ public interface Body {
   double mass();
 
   Poly poly();
+
+  // same as poly().vertexes().length
+  default int nOfVertexes() {
+    return poly().vertexes().length;
+  }
+
+  // puts the x and y coordinates of the vertexes of poly() in xy, from offset on: implementations
+  // may do it without building the poly
+  default void fillVertices(double[] xy, int offset) {
+    Point[] vertexes = poly().vertexes();
+    for (int i = 0; i < vertexes.length; i = i + 1) {
+      xy[offset + 2 * i] = vertexes[i].x();
+      xy[offset + 2 * i + 1] = vertexes[i].y();
+    }
+  }
 }
@@ -27,46 +27,107 @@ import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.util.*;
-import java.time.Duration;
-import java.time.Instant;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.random.RandomGenerator;
 
 public abstract class AbstractEngine implements Engine, Profiled {
 
-  private static final Configuration DEFAULT_CONFIGURATION =
-      new Configuration(2, 1.5, 5, 0.5, Math.PI / 2d, 8);
+  public static final Configuration DEFAULT_CONFIGURATION =
+      new Configuration(2, 1.5, 5, 0.5, Math.PI / 2d, 8, true);
   private static final Logger L = Logger.getLogger(AbstractEngine.class.getName());
+  private static final int N_OF_INITIAL_ACTION_INDEXES = 64;
+  private static final int CHECKPOINT_VERSION = 5;
+  private static final double CONTROL_T_TOLERANCE = 1e-6;
+  private static final AtomicInteger N_OF_ACTION_CLASSES = new AtomicInteger(0);
+  // dense index of action classes, shared by all the engines, to look up solvers in arrays
+  private static final ClassValue<Integer> ACTION_INDEXES =
+      new ClassValue<>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+          return N_OF_ACTION_CLASSES.getAndIncrement();
+        }
+      };
   protected final AtomicDouble t;
   protected final List<Body> bodies;
-  protected final List<Pair<Agent, List<ActionOutcome<?, ?>>>> agentPairs;
+  protected final List<Agent> agents;
+  private final List<AgentActionOutcomes> agentActionOutcomes;
+  private final List<AgentControl> agentControls;
   private final Configuration configuration;
   private final Map<Class<? extends Action<?>>, ActionSolver<?, ?>> actionSolvers;
-  private final Instant startingInstant;
-  private final EnumMap<EngineSnapshot.TimeType, AtomicDouble> times;
-  private final EnumMap<EngineSnapshot.CounterType, AtomicInteger> counters;
+  private final long startingNanos;
+  private final double[] times;
+  private final int[] counters;
+  private final Map<Class<? extends Action<?>>, LatencyHistogram> actionTimes;
+  private final Map<Class<? extends Action<?>>, LatencyHistogram> actionTimeCopies;
+  private final ActionSolver<SelfDescribedAction<Object>, Object> selfDescribedActionSolver;
+  private final ActionSolver<Action<Object>, Object> unsupportedActionSolver;
+  private final SplitMixRandom randomGenerator;
+  private ActionSolver<?, ?>[] indexedActionSolvers;
+  private LatencyHistogram[] indexedActionTimes;
   private final List<ActionOutcome<?, ?>> lastTickPerformedActions;
-  private SpatialMap<NFCMessage> lastNFCMessages;
-  private SpatialMap<NFCMessage> newNFCMessages;
+  private NFCMessageStore lastNFCMessages;
+  private NFCMessageStore newNFCMessages;
+  private double[] vertexCoordinates;
+  private final EmptySnapshot emptySnapshot;
+  private SnapshotPolicy snapshotPolicy;
+  private TimeStepping timeStepping;
+  private boolean recordingActions;
+  private boolean clearingPerformedActions;
 
   public AbstractEngine(Configuration configuration) {
     this.configuration = configuration;
     bodies = new ArrayList<>();
-    agentPairs = new ArrayList<>();
+    agents = new ArrayList<>();
+    agentActionOutcomes = new ArrayList<>();
+    agentControls = new ArrayList<>();
     actionSolvers = new LinkedHashMap<>();
     t = new AtomicDouble(0d);
     lastTickPerformedActions = new ArrayList<>();
-    lastNFCMessages = new HashSpatialMap<>(configuration.nfcDistanceRange);
-    times = new EnumMap<>(EngineSnapshot.TimeType.class);
-    counters = new EnumMap<>(EngineSnapshot.CounterType.class);
-    Arrays.stream(EngineSnapshot.TimeType.values())
-        .forEach(t -> times.put(t, new AtomicDouble(0d)));
-    Arrays.stream(EngineSnapshot.CounterType.values())
-        .forEach(t -> counters.put(t, new AtomicInteger(0)));
-    startingInstant = Instant.now();
+    lastNFCMessages =
+        new NFCMessageStore(
+            configuration.nfcChannels,
+            configuration.nfcDistanceRange,
+            configuration.nfcSpatialMapType);
+    newNFCMessages =
+        new NFCMessageStore(
+            configuration.nfcChannels,
+            configuration.nfcDistanceRange,
+            configuration.nfcSpatialMapType);
+    times = new double[EngineSnapshot.TimeType.values().length];
+    counters = new int[EngineSnapshot.CounterType.values().length];
+    vertexCoordinates = new double[8];
+    actionTimes = new LinkedHashMap<>();
+    actionTimeCopies = new HashMap<>();
+    indexedActionSolvers = new ActionSolver<?, ?>[N_OF_INITIAL_ACTION_INDEXES];
+    indexedActionTimes = new LatencyHistogram[N_OF_INITIAL_ACTION_INDEXES];
+    selfDescribedActionSolver = (action, agent) -> action.perform(this, agent);
+    unsupportedActionSolver =
+        (action, agent) -> {
+          counters[EngineSnapshot.CounterType.UNSUPPORTED_ACTION.ordinal()] += 1;
+          if (L.isLoggable(Level.FINER)) {
+            L.finer(
+                String.format(
+                    "Ignoring unsupported action: %s", action.getClass().getSimpleName()));
+          }
+          return null;
+        };
+    randomGenerator = new SplitMixRandom(configuration.randomSeed);
+    startingNanos = System.nanoTime();
+    snapshotPolicy = SnapshotPolicy.FULL;
+    emptySnapshot = new EmptySnapshot();
+    timeStepping = TimeStepping.DEFAULT;
+    recordingActions = true;
     registerActionSolvers();
   }
 
@@ -79,13 +140,125 @@ public abstract class AbstractEngine implements Engine, Profiled {
     O solve(A action, Agent agent) throws ActionException;
   }
 
+  // the same buffer is passed to the agent, as read-only view, and then refilled at each tick with
+  // the same outcome holders
+  private record AgentActionOutcomes(
+      List<ActionOutcome<?, ?>> outcomes,
+      List<ActionOutcome<?, ?>> view,
+      List<ActionOutcome<?, ?>> holders) {
+    private AgentActionOutcomes(List<ActionOutcome<?, ?>> outcomes) {
+      this(outcomes, Collections.unmodifiableList(outcomes), new ArrayList<>());
+    }
+  }
+
+  private static final class AgentControl {
+    private final double interval;
+    private double nextT;
+
+    private AgentControl(double interval, double nextT) {
+      this.interval = interval;
+      this.nextT = nextT;
+    }
+  }
+
+  // returned by ticks without a due snapshot: it is the same instance at every tick, only its time
+  // is updated
+  private static final class EmptySnapshot implements Snapshot {
+    private double t;
+
+    @Override
+    public Collection<ActionOutcome<?, ?>> actionOutcomes() {
+      return List.of();
+    }
+
+    @Override
+    public Collection<Agent> agents() {
+      return List.of();
+    }
+
+    @Override
+    public Collection<Body> bodies() {
+      return List.of();
+    }
+
+    @Override
+    public Collection<NFCMessage> nfcMessages() {
+      return List.of();
+    }
+
+    @Override
+    public double t() {
+      return t;
+    }
+  }
+
   public record Configuration(
       double attractionRange,
       double attractLinkRangeRatio,
       double bodyFindRange,
       double nfcDistanceRange,
       double nfcAngleRange,
-      int nfcChannels) {}
+      int nfcChannels,
+      boolean profiling,
+      long randomSeed,
+      SpatialMap.Type nfcSpatialMapType) {
+    public Configuration(
+        double attractionRange,
+        double attractLinkRangeRatio,
+        double bodyFindRange,
+        double nfcDistanceRange,
+        double nfcAngleRange,
+        int nfcChannels,
+        boolean profiling,
+        long randomSeed) {
+      this(
+          attractionRange,
+          attractLinkRangeRatio,
+          bodyFindRange,
+          nfcDistanceRange,
+          nfcAngleRange,
+          nfcChannels,
+          profiling,
+          randomSeed,
+          SpatialMap.Type.PACKED);
+    }
+
+    public Configuration(
+        double attractionRange,
+        double attractLinkRangeRatio,
+        double bodyFindRange,
+        double nfcDistanceRange,
+        double nfcAngleRange,
+        int nfcChannels,
+        boolean profiling) {
+      this(
+          attractionRange,
+          attractLinkRangeRatio,
+          bodyFindRange,
+          nfcDistanceRange,
+          nfcAngleRange,
+          nfcChannels,
+          profiling,
+          0L);
+    }
+
+    public Configuration(
+        double attractionRange,
+        double attractLinkRangeRatio,
+        double bodyFindRange,
+        double nfcDistanceRange,
+        double nfcAngleRange,
+        int nfcChannels) {
+      this(
+          attractionRange,
+          attractLinkRangeRatio,
+          bodyFindRange,
+          nfcDistanceRange,
+          nfcAngleRange,
+          nfcChannels,
+          true);
+    }
+  }
 
   protected abstract Collection<Body> getBodies();
 
@@ -94,10 +267,10 @@ public abstract class AbstractEngine implements Engine, Profiled {
   protected Agent addAgent(AddAgent action, Agent agent) throws ActionException {
     if (action.agent() instanceof EmbodiedAgent embodiedAgent) {
       embodiedAgent.assemble(this);
-      agentPairs.add(new Pair<>(action.agent(), List.of()));
-    } else {
-      agentPairs.add(new Pair<>(action.agent(), List.of()));
     }
+    agents.add(action.agent());
+    agentActionOutcomes.add(new AgentActionOutcomes(new ArrayList<>()));
+    agentControls.add(new AgentControl(action.controlInterval(), t.get()));
     return action.agent();
   }
 
@@ -122,17 +295,16 @@ public abstract class AbstractEngine implements Engine, Profiled {
   }
 
   protected Map<Pair<Anchor, Anchor>, AttractAndLinkAnchor.Outcome> attractAndLinkClosestAnchorable(
-      AttractAndLinkClosestAnchorable action, Agent agent) throws IllegalActionException {
+      AttractAndLinkClosestAnchorable action, Agent agent) {
     // find owner
-    Anchorable src =
-        action.anchors().stream()
-            .findAny()
-            .map(Anchor::anchorable)
-            .orElseThrow(() -> new IllegalActionException(action, "Empty source anchorable"));
+    if (action.anchors().isEmpty()) {
+      return illegalAction(action, "Empty source anchorable");
+    }
+    Anchorable src = action.anchors().iterator().next().anchorable();
     // find closest
     Optional<Pair<Anchorable, Double>> closest =
         bodies.stream()
-            .filter(b -> b != src && b instanceof Anchorable)
+            .filter(b -> b != src && b instanceof Anchorable && samePartition(b, src))
             .map(
                 b ->
                     new Pair<>(
@@ -153,80 +325,237 @@ public abstract class AbstractEngine implements Engine, Profiled {
     return Map.of();
   }
 
+  @Override
+  public byte[] checkpoint() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      writeState(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Override
+  public void restore(byte[] checkpoint) {
+    Runnable restorer;
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(checkpoint))) {
+      restorer = readState(in);
+      if (in.available() > 0) {
+        throw new IllegalArgumentException(
+            "Checkpoint has %d unread bytes".formatted(in.available()));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // the engine is changed only after the whole checkpoint has been read and validated
+    restorer.run();
+  }
+
+  // subclasses write the state of their bodies after the one written here
+  protected void writeState(DataOutput out) throws IOException {
+    out.writeInt(CHECKPOINT_VERSION);
+    out.writeDouble(t.get());
+    out.writeLong(randomGenerator.state());
+    Map<Integer, Collection<NFCMessage>> partitionMessages = lastNFCMessages.allByPartition();
+    out.writeInt(partitionMessages.size());
+    for (Map.Entry<Integer, Collection<NFCMessage>> entry : partitionMessages.entrySet()) {
+      out.writeInt(entry.getKey());
+      out.writeInt(entry.getValue().size());
+      for (NFCMessage message : entry.getValue()) {
+        out.writeDouble(message.source().x());
+        out.writeDouble(message.source().y());
+        out.writeDouble(message.direction());
+        out.writeShort(message.channel());
+        out.writeDouble(message.value());
+      }
+    }
+  }
+
+  // reads and validates the state written by writeState(), without changing the engine: the
+  // returned runnable applies it; subclasses apply their state after the one applied here
+  protected Runnable readState(DataInput in) throws IOException {
+    int version = in.readInt();
+    if (version != CHECKPOINT_VERSION) {
+      throw new IllegalArgumentException(
+          "Unsupported checkpoint version %d: expected %d".formatted(version, CHECKPOINT_VERSION));
+    }
+    double stateT = in.readDouble();
+    long randomGeneratorState = in.readLong();
+    Map<Integer, List<NFCMessage>> partitionMessages = new LinkedHashMap<>();
+    int nOfPartitions = in.readInt();
+    for (int i = 0; i < nOfPartitions; i++) {
+      int partition = in.readInt();
+      int nOfMessages = in.readInt();
+      List<NFCMessage> messages = new ArrayList<>(nOfMessages);
+      for (int j = 0; j < nOfMessages; j++) {
+        Point source = new Point(in.readDouble(), in.readDouble());
+        NFCMessage message =
+            new NFCMessage(source, in.readDouble(), in.readShort(), in.readDouble());
+        if (message.channel() < 0 || message.channel() >= configuration.nfcChannels) {
+          throw new IllegalArgumentException(
+              "Checkpoint has a message on channel %d, engine has %d channels"
+                  .formatted(message.channel(), configuration.nfcChannels));
+        }
+        messages.add(message);
+      }
+      partitionMessages.put(partition, messages);
+    }
+    return () -> {
+      t.set(stateT);
+      randomGenerator.setState(randomGeneratorState);
+      lastNFCMessages.clear();
+      partitionMessages.forEach(
+          (partition, messages) -> messages.forEach(m -> lastNFCMessages.add(m, partition)));
+      // outcomes of actions performed after the checkpoint are meaningless after restoring
+      agentActionOutcomes.forEach(o -> o.outcomes().clear());
+      for (AgentControl control : agentControls) {
+        control.nextT = t.get();
+      }
+      lastTickPerformedActions.clear();
+    };
+  }
+
+  @Override
+  public RandomGenerator randomGenerator() {
+    return randomGenerator;
+  }
+
+  // same as body.poly().center(), but without building the poly
+  protected final Point center(Body body) {
+    int nOfVertexes = body.nOfVertexes();
+    if (vertexCoordinates.length < 2 * nOfVertexes) {
+      vertexCoordinates = new double[2 * nOfVertexes];
+    }
+    body.fillVertices(vertexCoordinates, 0);
+    double x = 0d;
+    double y = 0d;
+    for (int i = 0; i < nOfVertexes; i = i + 1) {
+      x = x + vertexCoordinates[2 * i];
+      y = y + vertexCoordinates[2 * i + 1];
+    }
+    return new Point(x / nOfVertexes, y / nOfVertexes);
+  }
+
   protected Configuration configuration() {
     return configuration;
   }
 
-  protected NFCMessage emitNFCMessage(EmitNFCMessage action, Agent agent) throws ActionException {
+  protected NFCMessage emitNFCMessage(EmitNFCMessage action, Agent agent) {
     if (action.channel() < 0 || action.channel() >= configuration.nfcChannels) {
-      throw new ActionException(
-          "Invalid channel: %d not in [0,%d]"
-              .formatted(action.channel(), configuration.nfcChannels - 1));
+      return illegalAction(
+          action,
+          "Invalid channel: %d not in [0,%d]",
+          action.channel(),
+          configuration.nfcChannels - 1);
     }
-    Point source = action.body().poly().center().sum(action.displacement());
+    Point source = center(action.body()).sum(action.displacement());
     NFCMessage message =
         new NFCMessage(source, action.direction(), action.channel(), action.value());
-    newNFCMessages.add(source, message);
+    newNFCMessages.add(message, partition(action.body()));
     return message;
   }
 
+  // the partition a body is simulated in, which is always 0 if the engine does not partition the
+  // world; bodies shared by all partitions (e.g., the terrain) have a negative partition
+  protected int partition(Body body) {
+    return 0;
+  }
+
+  protected final boolean samePartition(Body body1, Body body2) {
+    int partition1 = partition(body1);
+    int partition2 = partition(body2);
+    return partition1 < 0 || partition2 < 0 || partition1 == partition2;
+  }
+
   @SuppressWarnings("unchecked")
+  private int actionIndex(Class<?> actionClass) {
+    int index = ACTION_INDEXES.get(actionClass);
+    if (index >= indexedActionSolvers.length) {
+      int length = Math.max(index + 1, indexedActionSolvers.length * 2);
+      indexedActionSolvers = Arrays.copyOf(indexedActionSolvers, length);
+      indexedActionTimes = Arrays.copyOf(indexedActionTimes, length);
+    }
+    if (indexedActionSolvers[index] == null) {
+      // resolve once per action class
+      ActionSolver<?, ?> actionSolver = actionSolvers.get(actionClass);
+      if (actionSolver == null) {
+        if (SelfDescribedAction.class.isAssignableFrom(actionClass)) {
+          actionSolver = selfDescribedActionSolver;
+        } else {
+          actionSolver = unsupportedActionSolver;
+        }
+      }
+      indexedActionSolvers[index] = actionSolver;
+      if (configuration.profiling && indexedActionTimes[index] == null) {
+        indexedActionTimes[index] = new LatencyHistogram();
+        actionTimes.put((Class<? extends Action<?>>) actionClass, indexedActionTimes[index]);
+      }
+    }
+    return index;
+  }
+
+  protected final <O> O illegalAction(Action<?> action, String format, Object... args) {
+    counters[EngineSnapshot.CounterType.ILLEGAL_ACTION.ordinal()] += 1;
+    if (L.isLoggable(Level.FINER)) {
+      L.finer(
+          String.format(
+              "Ignoring illegal action %s due to %s",
+              action.getClass().getSimpleName(), String.format(format, args)));
+    }
+    return null;
+  }
+
   @Override
   public <A extends Action<O>, O> ActionOutcome<A, O> perform(A action, Agent agent) {
-    Instant performStartingInstant = Instant.now();
-    counters.get(EngineSnapshot.CounterType.ACTION).incrementAndGet();
-    ActionSolver<A, O> actionSolver = (ActionSolver<A, O>) actionSolvers.get(action.getClass());
+    return new ActionOutcome<>(agent, action, Optional.ofNullable(performValue(action, agent)));
+  }
+
+  // as perform(), but without building the outcome: the performed action is recorded, if needed,
+  // with its own outcome
+  @SuppressWarnings("unchecked")
+  private <A extends Action<O>, O> O performValue(A action, Agent agent) {
+    long performStartingNanos = configuration.profiling ? System.nanoTime() : 0L;
+    counters[EngineSnapshot.CounterType.ACTION.ordinal()] += 1;
+    int index = actionIndex(action.getClass());
+    ActionSolver<A, O> actionSolver = (ActionSolver<A, O>) indexedActionSolvers[index];
     O o = null;
-    if (actionSolver == null) {
-      // try composite action
-      if (action instanceof SelfDescribedAction<?> selfDescribedAction) {
-        try {
-          o = (O) selfDescribedAction.perform(this, agent);
-        } catch (ActionException e) {
-          L.finer(
-              String.format(
-                  "Ignoring illegal action %s due to %s", action.getClass().getSimpleName(), e));
-          counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
-        } catch (RuntimeException e) {
-          L.warning(
-              String.format(
-                  "Ignoring action %s throwing exception: %s",
-                  action.getClass().getSimpleName(), e));
-          counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
-        }
-      } else {
-        // keep note as unsupported action
-        L.finer(
-            String.format("Ignoring unsupported action: %s", action.getClass().getSimpleName()));
-        counters.get(EngineSnapshot.CounterType.UNSUPPORTED_ACTION).incrementAndGet();
-      }
-    } else {
-      try {
-        o = actionSolver.solve(action, agent);
-      } catch (ActionException e) {
+    try {
+      o = actionSolver.solve(action, agent);
+    } catch (ActionException e) {
+      counters[EngineSnapshot.CounterType.ILLEGAL_ACTION.ordinal()] += 1;
+      if (L.isLoggable(Level.FINER)) {
         L.finer(
             String.format(
                 "Ignoring illegal action %s due to %s", action.getClass().getSimpleName(), e));
-        counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
-      } catch (RuntimeException e) {
-        L.warning(
-            String.format(
-                "Ignoring action %s throwing exception: %s", action.getClass().getSimpleName(), e));
-        counters.get(EngineSnapshot.CounterType.ILLEGAL_ACTION).incrementAndGet();
       }
+    } catch (RuntimeException e) {
+      L.warning(
+          String.format(
+              "Ignoring action %s throwing exception: %s", action.getClass().getSimpleName(), e));
+      counters[EngineSnapshot.CounterType.ILLEGAL_ACTION.ordinal()] += 1;
+    }
+    if (recordingActions) {
+      lastTickPerformedActions.add(recorded(agent, action, o));
+    }
+    if (configuration.profiling) {
+      long elapsedNanos = System.nanoTime() - performStartingNanos;
+      times[EngineSnapshot.TimeType.PERFORM.ordinal()] += elapsedNanos / 1000000000d;
+      indexedActionTimes[index].add(elapsedNanos);
     }
-    ActionOutcome<A, O> outcome =
-        new ActionOutcome<>(agent, action, o == null ? Optional.empty() : Optional.of(o));
-    lastTickPerformedActions.add(outcome);
-    times
-        .get(EngineSnapshot.TimeType.PERFORM)
-        .add(Duration.between(performStartingInstant, Instant.now()).toNanos() / 1000000000d);
-    return outcome;
+    return o;
+  }
+
+  private <A extends Action<O>, O> ActionOutcome<A, O> performInto(
+      ActionOutcome<?, ?> holder, A action, Agent agent) {
+    return holder.set(agent, action, performValue(action, agent));
   }
 
   protected final <A extends Action<O>, O> void registerActionSolver(
       Class<A> actionClass, ActionSolver<A, O> actionSolver) {
     actionSolvers.put(actionClass, actionSolver);
+    // invalidate already resolved solvers
+    Arrays.fill(indexedActionSolvers, null);
   }
 
   protected void registerActionSolvers() {
@@ -237,22 +566,66 @@ public abstract class AbstractEngine implements Engine, Profiled {
     registerActionSolver(SenseSinusoidal.class, this::senseSinusoidal);
     registerActionSolver(EmitNFCMessage.class, this::emitNFCMessage);
     registerActionSolver(SenseNFC.class, this::senseNFC);
+    registerActionSolver(SenseBatch.class, this::senseBatch);
+  }
+
+  protected double sense(Sense<?> sense, Agent agent) {
+    if (sense instanceof SelfDescribedSense<?> selfDescribedSense) {
+      return selfDescribedSense.sense();
+    }
+    Double value = performValue(sense, agent);
+    return value == null ? 0d : value;
+  }
+
+  // the values of a batch are usually a buffer reused by the agent at every tick, hence recorded
+  // outcomes get a copy of them
+  private static <A extends Action<O>, O> ActionOutcome<?, ?> recorded(Agent agent, A action, O o) {
+    if (action instanceof SenseBatch senseBatch) {
+      double[] values = senseBatch.values().clone();
+      return new ActionOutcome<>(
+          agent,
+          new SenseBatch(senseBatch.senses(), values),
+          o == null ? Optional.empty() : Optional.of(values));
+    }
+    return new ActionOutcome<>(agent, action, Optional.ofNullable(o));
+  }
+
+  protected double[] senseBatch(SenseBatch action, Agent agent) {
+    List<Sense<?>> senses = action.senses();
+    double[] values = action.values();
+    for (int i = 0; i < values.length; i++) {
+      try {
+        values[i] = sense(senses.get(i), agent);
+      } catch (RuntimeException e) {
+        // as for a failed single sense, without leaving the value of the previous tick
+        L.warning(
+            String.format(
+                "Ignoring sense %s throwing exception: %s",
+                senses.get(i).getClass().getSimpleName(), e));
+        counters[EngineSnapshot.CounterType.ILLEGAL_ACTION.ordinal()] += 1;
+        values[i] = 0d;
+      }
+    }
+    if (recordingActions) {
+      // outcomes of directly sensed senses are built only if someone may look at them
+      for (int i = 0; i < values.length; i++) {
+        if (senses.get(i) instanceof SelfDescribedSense<?>) {
+          lastTickPerformedActions.add(
+              new ActionOutcome<>(agent, senses.get(i), Optional.of(values[i])));
+        }
+      }
+    }
+    return values;
   }
 
   protected Double senseNFC(SenseNFC action, Agent agent) {
     double sum =
-        lastNFCMessages
-            .get(
-                action.body().poly().center().sum(action.displacement()),
-                configuration.nfcDistanceRange)
-            .stream()
-            .filter(
-                m ->
-                    m.channel() == action.channel()
-                        && Math.abs(m.direction() - action.direction())
-                            >= configuration.nfcAngleRange)
-            .mapToDouble(NFCMessage::value)
-            .sum();
+        lastNFCMessages.sum(
+            center(action.body()).sum(action.displacement()),
+            action.channel(),
+            action.direction(),
+            configuration.nfcAngleRange,
+            partition(action.body()));
     return action.range().clip(sum);
   }
 
@@ -267,56 +640,151 @@ public abstract class AbstractEngine implements Engine, Profiled {
 
   @Override
   public Snapshot tick() {
-    Instant tickStartingInstant = Instant.now();
-    newNFCMessages = new HashSpatialMap<>(configuration.nfcDistanceRange);
-    counters.get(EngineSnapshot.CounterType.TICK).incrementAndGet();
-    for (int i = 0; i < agentPairs.size(); i++) {
-      List<ActionOutcome<?, ?>> outcomes = new ArrayList<>();
-      for (Action<?> action : agentPairs.get(i).first().act(t.get(), agentPairs.get(i).second())) {
-        outcomes.add(perform(action, agentPairs.get(i).first()));
+    long tickStartingNanos = configuration.profiling ? System.nanoTime() : 0L;
+    if (clearingPerformedActions) {
+      lastTickPerformedActions.clear();
+      clearingPerformedActions = false;
+    }
+    newNFCMessages.clear();
+    counters[EngineSnapshot.CounterType.TICK.ordinal()] += 1;
+    for (int i = 0; i < agents.size(); i++) {
+      Agent agent = agents.get(i);
+      AgentActionOutcomes outcomes = agentActionOutcomes.get(i);
+      AgentControl control = agentControls.get(i);
+      if (t.get() < control.nextT - CONTROL_T_TOLERANCE) {
+        // no sensing, no control: the last actuations are kept, since actuated bodies hold their
+        // targets until actuated again
+        continue;
+      }
+      List<? extends Action<?>> actions = agent.act(t.get(), outcomes.view());
+      outcomes.outcomes().clear();
+      for (int j = 0; j < actions.size(); j++) {
+        if (j == outcomes.holders().size()) {
+          outcomes.holders().add(new ActionOutcome<>());
+        }
+        outcomes.outcomes().add(performInto(outcomes.holders().get(j), actions.get(j), agent));
       }
-      Pair<Agent, List<ActionOutcome<?, ?>>> pair = new Pair<>(agentPairs.get(i).first(), outcomes);
-      agentPairs.set(i, pair);
+      control.nextT = control.nextT + control.interval;
     }
+    NFCMessageStore nfcMessages = lastNFCMessages;
     lastNFCMessages = newNFCMessages;
-    Instant innerTickStartingInstant = Instant.now();
-    double newT = innerTick();
-    t.set(newT);
-    times
-        .get(EngineSnapshot.TimeType.INNER_TICK)
-        .add(Duration.between(innerTickStartingInstant, Instant.now()).toNanos() / 1000000000d);
-    times
-        .get(EngineSnapshot.TimeType.TICK)
-        .add(Duration.between(tickStartingInstant, Instant.now()).toNanos() / 1000000000d);
-    times
-        .get(EngineSnapshot.TimeType.WALL)
-        .set(Duration.between(startingInstant, Instant.now()).toMillis() / 1000d);
-    times.get(EngineSnapshot.TimeType.ENVIRONMENT).set(t.get());
-    EngineSnapshot snapshot =
-        new EngineSnapshot(
-            t.get(),
-            List.copyOf(getBodies()),
-            agentPairs.stream().map(Pair::first).toList(),
-            List.copyOf(lastTickPerformedActions),
-            lastNFCMessages.all(),
-            times.entrySet().stream()
-                .map(e -> Map.entry(e.getKey(), e.getValue().get()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)),
-            counters.entrySet().stream()
-                .map(e -> Map.entry(e.getKey(), e.getValue().get()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
-    lastTickPerformedActions.clear();
+    newNFCMessages = nfcMessages;
+    long innerTickStartingNanos = configuration.profiling ? System.nanoTime() : 0L;
+    // actions of agents stay in place for all the physics steps of this tick
+    for (int i = 0; i < timeStepping.physicsStepsPerTick(); i++) {
+      t.set(innerTick());
+    }
+    if (configuration.profiling) {
+      long tickEndingNanos = System.nanoTime();
+      times[EngineSnapshot.TimeType.INNER_TICK.ordinal()] +=
+          (tickEndingNanos - innerTickStartingNanos) / 1000000000d;
+      times[EngineSnapshot.TimeType.TICK.ordinal()] +=
+          (tickEndingNanos - tickStartingNanos) / 1000000000d;
+      times[EngineSnapshot.TimeType.WALL.ordinal()] =
+          (tickEndingNanos - startingNanos) / 1000000000d;
+    }
+    times[EngineSnapshot.TimeType.ENVIRONMENT.ordinal()] = t.get();
+    Snapshot snapshot;
+    if (snapshotPolicy.isDue(counters[EngineSnapshot.CounterType.TICK.ordinal()])) {
+      snapshot = snapshot();
+      lastTickPerformedActions.clear();
+    } else {
+      // performed actions, if recorded, are kept until the next tick for on demand snapshots
+      emptySnapshot.t = t.get();
+      snapshot = emptySnapshot;
+      clearingPerformedActions = true;
+    }
+    recordingActions =
+        snapshotPolicy.recordsActions(counters[EngineSnapshot.CounterType.TICK.ordinal()] + 1);
     return snapshot;
   }
 
+  @Override
+  public Snapshot snapshot() {
+    return new EngineSnapshot(
+        t.get(),
+        List.copyOf(getBodies()),
+        List.copyOf(agents),
+        List.copyOf(lastTickPerformedActions),
+        lastNFCMessages.all(),
+        timesMap(),
+        countersMap(),
+        actionTimesMap());
+  }
+
+  private Map<Class<? extends Action<?>>, LatencyHistogram> actionTimesMap() {
+    // histograms are copied, hence paid for, only when profiling, and only if changed since the
+    // last snapshot
+    if (!configuration.profiling) {
+      return Map.of();
+    }
+    Map<Class<? extends Action<?>>, LatencyHistogram> map = new LinkedHashMap<>();
+    for (Map.Entry<Class<? extends Action<?>>, LatencyHistogram> entry : actionTimes.entrySet()) {
+      LatencyHistogram copy = actionTimeCopies.get(entry.getKey());
+      if (copy == null || copy.count() != entry.getValue().count()) {
+        copy = entry.getValue().copy();
+        actionTimeCopies.put(entry.getKey(), copy);
+      }
+      map.put(entry.getKey(), copy);
+    }
+    return map;
+  }
+
+  @Override
+  public void setSnapshotPolicy(SnapshotPolicy snapshotPolicy) {
+    this.snapshotPolicy = snapshotPolicy;
+    recordingActions =
+        snapshotPolicy.recordsActions(counters[EngineSnapshot.CounterType.TICK.ordinal()] + 1);
+  }
+
+  @Override
+  public SnapshotPolicy snapshotPolicy() {
+    return snapshotPolicy;
+  }
+
+  @Override
+  public void setTimeStepping(TimeStepping timeStepping) {
+    this.timeStepping = timeStepping;
+  }
+
+  @Override
+  public TimeStepping timeStepping() {
+    return timeStepping;
+  }
+
+  private Map<EngineSnapshot.CounterType, Integer> countersMap() {
+    Map<EngineSnapshot.CounterType, Integer> map = new EnumMap<>(EngineSnapshot.CounterType.class);
+    for (EngineSnapshot.CounterType counterType : EngineSnapshot.CounterType.values()) {
+      map.put(counterType, counters[counterType.ordinal()]);
+    }
+    return map;
+  }
+
+  private Map<EngineSnapshot.TimeType, Double> timesMap() {
+    Map<EngineSnapshot.TimeType, Double> map = new EnumMap<>(EngineSnapshot.TimeType.class);
+    for (EngineSnapshot.TimeType timeType : EngineSnapshot.TimeType.values()) {
+      map.put(timeType, times[timeType.ordinal()]);
+    }
+    return map;
+  }
+
   @Override
   public Map<String, Number> values() {
-    return Stream.of(
-            times.entrySet().stream().map(e -> Map.entry("time_" + e.getKey(), e.getValue().get())),
-            counters.entrySet().stream()
-                .map(e -> Map.entry("counter_" + e.getKey(), e.getValue().get())))
-        .flatMap(m -> m)
-        .map(e -> Map.entry(e.getKey().toLowerCase(), e.getValue()))
-        .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    Map<String, Number> values = new LinkedHashMap<>();
+    for (EngineSnapshot.TimeType timeType : EngineSnapshot.TimeType.values()) {
+      values.put("time_" + timeType.name().toLowerCase(), times[timeType.ordinal()]);
+    }
+    for (EngineSnapshot.CounterType counterType : EngineSnapshot.CounterType.values()) {
+      values.put("counter_" + counterType.name().toLowerCase(), counters[counterType.ordinal()]);
+    }
+    for (Map.Entry<Class<? extends Action<?>>, LatencyHistogram> entry : actionTimes.entrySet()) {
+      String name = "action_" + entry.getKey().getSimpleName().toLowerCase();
+      LatencyHistogram histogram = entry.getValue();
+      values.put("counter_" + name, histogram.count());
+      values.put("time_" + name, histogram.totalNanos() / 1000000000d);
+      values.put("time_" + name + "_p50", histogram.quantileNanos(0.5) / 1000000000d);
+      values.put("time_" + name + "_p99", histogram.quantileNanos(0.99) / 1000000000d);
+    }
+    return values;
   }
 }
@@ -24,18 +24,28 @@ import io.github.ericmedvet.mrsim2d.core.Action;
 
 public class ActionException extends Exception {
   private final Action<?> action;
+  private final String cause;
 
+  // no stack trace and no message formatting until needed: illegal actions are routine
   public ActionException(Action<?> action, String cause) {
-    super(String.format("Cannot perform action %s: %s", action, cause));
+    super(null, null, false, false);
     this.action = action;
+    this.cause = cause;
   }
 
   public ActionException(String message) {
-    super(message);
-    this.action = null;
+    this(null, message);
   }
 
   public Action<?> getAction() {
     return action;
   }
+
+  @Override
+  public String getMessage() {
+    if (action == null) {
+      return cause;
+    }
+    return String.format("Cannot perform action %s: %s", action, cause);
+  }
 }
@@ -21,5 +21,34 @@
 package io.github.ericmedvet.mrsim2d.core.engine;
 
 import io.github.ericmedvet.mrsim2d.core.Environment;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import java.util.random.RandomGenerator;
 
-public interface Engine extends Environment {}
+public interface Engine extends Environment {
+
+  // full snapshot of the current state, regardless of the snapshot policy
+  Snapshot snapshot();
+
+  void setSnapshotPolicy(SnapshotPolicy snapshotPolicy);
+
+  SnapshotPolicy snapshotPolicy();
+
+  void setTimeStepping(TimeStepping timeStepping);
+
+  TimeStepping timeStepping();
+
+  // owned by this engine and seeded from its configuration: tasks and agents drawing from it get
+  // the same numbers regardless of how many engines run concurrently
+  RandomGenerator randomGenerator();
+
+  // compact binary image of the simulation state, to be restored on this same engine
+  default byte[] checkpoint() {
+    throw new UnsupportedOperationException(
+        "Checkpointing is not supported by %s".formatted(getClass().getSimpleName()));
+  }
+
+  default void restore(byte[] checkpoint) {
+    throw new UnsupportedOperationException(
+        "Checkpointing is not supported by %s".formatted(getClass().getSimpleName()));
+  }
+}
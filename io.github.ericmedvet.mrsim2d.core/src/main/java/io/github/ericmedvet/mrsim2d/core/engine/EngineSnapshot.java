@@ -20,11 +20,13 @@
 
 package io.github.ericmedvet.mrsim2d.core.engine;
 
+import io.github.ericmedvet.mrsim2d.core.Action;
 import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
 import io.github.ericmedvet.mrsim2d.core.Agent;
 import io.github.ericmedvet.mrsim2d.core.NFCMessage;
 import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.util.LatencyHistogram;
 import java.util.Collection;
 import java.util.Map;
 
@@ -35,7 +37,8 @@ public record EngineSnapshot(
     Collection<ActionOutcome<?, ?>> actionOutcomes,
     Collection<NFCMessage> nfcMessages,
     Map<TimeType, Double> times,
-    Map<CounterType, Integer> counters)
+    Map<CounterType, Integer> counters,
+    Map<Class<? extends Action<?>>, LatencyHistogram> actionTimes)
     implements Snapshot {
   public enum CounterType {
     TICK,
@@ -0,0 +1,148 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.engine;
+
+import io.github.ericmedvet.mrsim2d.core.NFCMessage;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.util.CompensatedSum;
+import io.github.ericmedvet.mrsim2d.core.util.SpatialMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// messages are bucketed by partition and channel when added, so that sensing visits only the
+// messages of the sensed channel emitted in the same partition of the sensing body
+final class NFCMessageStore {
+
+  private final int nOfChannels;
+  private final double distanceRange;
+  private final SpatialMap.Type type;
+  private final Map<Integer, List<SpatialMap<NFCMessage>>> partitionMaps;
+  private final Accumulator accumulator;
+  private int size;
+  private int lastPartition;
+  private List<SpatialMap<NFCMessage>> lastMaps;
+
+  NFCMessageStore(int nOfChannels, double distanceRange, SpatialMap.Type type) {
+    this.nOfChannels = nOfChannels;
+    this.distanceRange = distanceRange;
+    this.type = type;
+    partitionMaps = new LinkedHashMap<>();
+    accumulator = new Accumulator();
+  }
+
+  // it is reused across senses, to avoid allocating a consumer each time
+  private static final class Accumulator implements Consumer<NFCMessage> {
+    private final CompensatedSum sum = new CompensatedSum();
+    private double direction;
+    private double angleRange;
+
+    @Override
+    public void accept(NFCMessage message) {
+      if (Math.abs(message.direction() - direction) >= angleRange) {
+        sum.add(message.value());
+      }
+    }
+
+    private void reset(double direction, double angleRange) {
+      this.direction = direction;
+      this.angleRange = angleRange;
+      sum.reset();
+    }
+  }
+
+  void add(NFCMessage message, int partition) {
+    maps(partition, true).get(message.channel()).add(message.source(), message);
+    size = size + 1;
+  }
+
+  Collection<NFCMessage> all() {
+    List<NFCMessage> all = new ArrayList<>(size);
+    for (List<SpatialMap<NFCMessage>> maps : partitionMaps.values()) {
+      for (SpatialMap<NFCMessage> map : maps) {
+        all.addAll(map.all());
+      }
+    }
+    return all;
+  }
+
+  void clear() {
+    if (size == 0) {
+      return;
+    }
+    // maps are kept, as partitions usually persist across ticks
+    for (List<SpatialMap<NFCMessage>> maps : partitionMaps.values()) {
+      for (SpatialMap<NFCMessage> map : maps) {
+        map.clear();
+      }
+    }
+    size = 0;
+  }
+
+  Map<Integer, Collection<NFCMessage>> allByPartition() {
+    Map<Integer, Collection<NFCMessage>> all = new LinkedHashMap<>();
+    for (Map.Entry<Integer, List<SpatialMap<NFCMessage>>> entry : partitionMaps.entrySet()) {
+      List<NFCMessage> messages = new ArrayList<>();
+      for (SpatialMap<NFCMessage> map : entry.getValue()) {
+        messages.addAll(map.all());
+      }
+      if (!messages.isEmpty()) {
+        all.put(entry.getKey(), messages);
+      }
+    }
+    return all;
+  }
+
+  private List<SpatialMap<NFCMessage>> maps(int partition, boolean creating) {
+    if (lastMaps != null && partition == lastPartition) {
+      return lastMaps;
+    }
+    List<SpatialMap<NFCMessage>> maps = partitionMaps.get(partition);
+    if (maps == null) {
+      if (!creating) {
+        return null;
+      }
+      maps = new ArrayList<>(nOfChannels);
+      for (int i = 0; i < nOfChannels; i++) {
+        maps.add(type.create(distanceRange));
+      }
+      partitionMaps.put(partition, maps);
+    }
+    lastPartition = partition;
+    lastMaps = maps;
+    return maps;
+  }
+
+  double sum(Point p, short channel, double direction, double angleRange, int partition) {
+    if (channel < 0 || channel >= nOfChannels) {
+      return 0d;
+    }
+    List<SpatialMap<NFCMessage>> maps = maps(partition, false);
+    if (maps == null) {
+      return 0d;
+    }
+    accumulator.reset(direction, angleRange);
+    maps.get(channel).forEachWithin(p, distanceRange, accumulator);
+    return accumulator.sum.get();
+  }
+}
@@ -0,0 +1,57 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.engine;
+
+public record SnapshotPolicy(Type type, int interval) {
+
+  public static final SnapshotPolicy NONE = new SnapshotPolicy(Type.NONE, 0);
+  public static final SnapshotPolicy ON_DEMAND = new SnapshotPolicy(Type.ON_DEMAND, 0);
+  public static final SnapshotPolicy FULL = new SnapshotPolicy(Type.FULL, 1);
+
+  public SnapshotPolicy {
+    if (type == Type.EVERY_N && interval < 1) {
+      throw new IllegalArgumentException("Interval must be >= 1: %d".formatted(interval));
+    }
+  }
+
+  public enum Type {
+    NONE,
+    EVERY_N,
+    ON_DEMAND,
+    FULL
+  }
+
+  public static SnapshotPolicy everyN(int interval) {
+    return new SnapshotPolicy(Type.EVERY_N, interval);
+  }
+
+  public boolean isDue(int nOfTicks) {
+    return switch (type) {
+      case FULL -> true;
+      case EVERY_N -> nOfTicks % interval == 0;
+      case NONE, ON_DEMAND -> false;
+    };
+  }
+
+  public boolean recordsActions(int nOfTicks) {
+    return type == Type.ON_DEMAND || isDue(nOfTicks);
+  }
+}
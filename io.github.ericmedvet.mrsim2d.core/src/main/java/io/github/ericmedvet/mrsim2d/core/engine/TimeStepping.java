@@ -0,0 +1,65 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.engine;
+
+// agents act once per tick, then the physics is stepped physicsStepsPerTick times; when
+// minSolverIterations < maxSolverIterations, the engine adapts the solver iterations to keep the
+// constraint error below maxConstraintError, otherwise it uses its own default iterations
+public record TimeStepping(
+    int physicsStepsPerTick,
+    int minSolverIterations,
+    int maxSolverIterations,
+    double maxConstraintError) {
+
+  public static final TimeStepping DEFAULT = fixed(1);
+
+  public TimeStepping {
+    if (physicsStepsPerTick < 1) {
+      throw new IllegalArgumentException(
+          "Physics steps per tick must be >= 1: %d".formatted(physicsStepsPerTick));
+    }
+    if (minSolverIterations > maxSolverIterations) {
+      throw new IllegalArgumentException(
+          "Min solver iterations must be <= max: %d > %d"
+              .formatted(minSolverIterations, maxSolverIterations));
+    }
+  }
+
+  public static TimeStepping adaptive(
+      int physicsStepsPerTick,
+      int minSolverIterations,
+      int maxSolverIterations,
+      double maxConstraintError) {
+    if (minSolverIterations < 1) {
+      throw new IllegalArgumentException(
+          "Min solver iterations must be >= 1: %d".formatted(minSolverIterations));
+    }
+    return new TimeStepping(
+        physicsStepsPerTick, minSolverIterations, maxSolverIterations, maxConstraintError);
+  }
+
+  public static TimeStepping fixed(int physicsStepsPerTick) {
+    return new TimeStepping(physicsStepsPerTick, 0, 0, Double.POSITIVE_INFINITY);
+  }
+
+  public boolean isAdaptive() {
+    return minSolverIterations < maxSolverIterations;
+  }
+}
@@ -0,0 +1,163 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.geometry;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.util.SplitMixRandom;
+import java.util.ArrayList;
+import java.util.List;
+
+// unbounded terrain made of chunks of width chunkW, after a left border: the height of each knot
+// (every stepW) depends only on seed and on the knot index, hence any chunk can be (re)built at any
+// time, in any order
+public record StreamedTerrain(
+    Profile profile,
+    double stepW,
+    double stepH,
+    double chunkW,
+    double h,
+    double borderW,
+    double borderH,
+    long seed) {
+
+  private static final long KNOT_GAMMA = 0x632be59bd9b4e019L;
+
+  public StreamedTerrain {
+    if (stepW <= 0 || chunkW <= 0 || h <= 0) {
+      throw new IllegalArgumentException(
+          "Step width, chunk width, and height must be > 0: %.1f, %.1f, %.1f"
+              .formatted(stepW, chunkW, h));
+    }
+  }
+
+  public enum Profile {
+    FLAT,
+    HILLY,
+    STEPPY
+  }
+
+  // index of the chunk containing x; the left border is chunk -1
+  public int chunkIndex(double x) {
+    if (x < borderW) {
+      return -1;
+    }
+    return (int) Math.floor((x - borderW) / chunkW);
+  }
+
+  public Poly chunk(int index) {
+    if (index < -1) {
+      throw new IllegalArgumentException("Invalid chunk index: %d".formatted(index));
+    }
+    if (index == -1) {
+      return new Poly(
+          new Point(0, borderH),
+          new Point(borderW, borderH),
+          new Point(borderW, -h),
+          new Point(0, -h));
+    }
+    double minU = index * chunkW;
+    double maxU = (index + 1) * chunkW;
+    List<Point> points = new ArrayList<>();
+    points.add(new Point(borderW + minU, profileY(minU)));
+    if (profile != Profile.FLAT) {
+      for (int k = (int) Math.floor(minU / stepW) + 1; k * stepW < maxU; k++) {
+        if (profile == Profile.STEPPY) {
+          points.add(new Point(borderW + k * stepW, knotY(k - 1)));
+        }
+        points.add(new Point(borderW + k * stepW, knotY(k)));
+      }
+    }
+    points.add(new Point(borderW + maxU, leftProfileY(maxU)));
+    double minY = points.stream().mapToDouble(Point::y).min().orElse(0d);
+    points.add(new Point(borderW + maxU, minY - h));
+    points.add(new Point(borderW + minU, minY - h));
+    return new Poly(points.toArray(Point[]::new));
+  }
+
+  public double heightAt(double x) {
+    if (!(x >= 0)) {
+      return Double.NaN;
+    }
+    if (x <= borderW) {
+      return borderH;
+    }
+    double u = x - borderW;
+    if (profile == Profile.STEPPY && u == Math.floor(u / stepW) * stepW) {
+      return Math.max(leftProfileY(u), profileY(u));
+    }
+    return profileY(u);
+  }
+
+  public double maxHeightAt(DoubleRange xRange) {
+    double max = maxIgnoringNaN(heightAt(xRange.min()), heightAt(xRange.max()));
+    if (xRange.min() <= borderW && xRange.max() >= borderW) {
+      max = maxIgnoringNaN(max, borderH);
+    }
+    if (profile != Profile.FLAT) {
+      int minK = (int) Math.max(0, Math.ceil((xRange.min() - borderW) / stepW));
+      int maxK = (int) Math.floor((xRange.max() - borderW) / stepW);
+      for (int k = minK; k <= maxK; k++) {
+        max = maxIgnoringNaN(max, heightAt(borderW + k * stepW));
+      }
+    }
+    if (Double.isNaN(max)) {
+      throw new IllegalArgumentException(
+          "Cannot find a terrain max y in range %.1f, %.1f.".formatted(xRange.min(), xRange.max()));
+    }
+    return max;
+  }
+
+  private static double maxIgnoringNaN(double y1, double y2) {
+    if (Double.isNaN(y1)) {
+      return y2;
+    }
+    if (Double.isNaN(y2)) {
+      return y1;
+    }
+    return Math.max(y1, y2);
+  }
+
+  private double knotY(int k) {
+    if (k <= 0 || profile == Profile.FLAT) {
+      return 0d;
+    }
+    return new SplitMixRandom(seed + k * KNOT_GAMMA).nextGaussian() * stepH;
+  }
+
+  // height just left of u, which differs from profileY(u) only at the steps of a steppy profile
+  private double leftProfileY(double u) {
+    if (profile == Profile.STEPPY) {
+      return knotY((int) Math.ceil(u / stepW) - 1);
+    }
+    return profileY(u);
+  }
+
+  private double profileY(double u) {
+    int k = (int) Math.floor(u / stepW);
+    return switch (profile) {
+      case FLAT -> 0d;
+      case STEPPY -> knotY(k);
+      case HILLY -> {
+        double y = knotY(k);
+        yield y + (knotY(k + 1) - y) * (u / stepW - k);
+      }
+    };
+  }
+}
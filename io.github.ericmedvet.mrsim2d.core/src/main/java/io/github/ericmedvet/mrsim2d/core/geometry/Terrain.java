@@ -17,36 +17,66 @@
  * limitations under the License.
  * =========================LICENSE_END==================================
  */
-
 package io.github.ericmedvet.mrsim2d.core.geometry;
 
 import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
 
-public record Terrain(Poly poly, DoubleRange withinBordersXRange) {
+public final class Terrain {
 
-  public double maxHeightAt(DoubleRange xRange) {
-    List<Double> xs =
-        new ArrayList<>(
-            Arrays.stream(poly().vertexes())
-                .filter(v -> v.x() >= xRange.min() && v.x() <= xRange.max())
-                .map(Point::x)
-                .toList());
-    xs.add(xRange.min());
-    xs.add(xRange.max());
-    return xs.stream()
-        .distinct()
-        .mapToDouble(x -> PolyUtils.maxYAtX(poly, x))
-        .filter(d -> !Double.isNaN(d))
-        .max()
-        .orElseThrow(
-            () ->
-                new IllegalArgumentException(
-                    "Cannot find a terrain max y in range %.1f, %.1f."
-                        .formatted(xRange.min(), xRange.max())));
+  private final Poly poly;
+  private final DoubleRange withinBordersXRange;
+  // sorted x of the ends of the non-vertical sides, with the max y of the poly at each of them
+  private final double[] xs;
+  private final double[] heights;
+  // topmost side between two consecutive xs, if any: sides do not cross, so it is the same
+  // for the whole interval
+  private final Segment[] topSides;
+  // implicit binary tree of the max of heights, for range queries
+  private final double[] maxHeights;
+
+  public Terrain(Poly poly, DoubleRange withinBordersXRange) {
+    this.poly = poly;
+    this.withinBordersXRange = withinBordersXRange;
+    List<Segment> sides = poly.sides().stream().filter(s -> s.p1().x() != s.p2().x()).toList();
+    xs =
+        sides.stream()
+            .flatMapToDouble(s -> DoubleStream.of(s.p1().x(), s.p2().x()))
+            .map(x -> x + 0d)
+            .distinct()
+            .sorted()
+            .toArray();
+    heights = new double[xs.length];
+    Arrays.fill(heights, Double.NaN);
+    topSides = new Segment[Math.max(0, xs.length - 1)];
+    for (Segment side : sides) {
+      int from = Arrays.binarySearch(xs, Math.min(side.p1().x(), side.p2().x()) + 0d);
+      int to = Arrays.binarySearch(xs, Math.max(side.p1().x(), side.p2().x()) + 0d);
+      for (int i = from; i <= to; i++) {
+        double y = PolyUtils.yAtX(side, xs[i]);
+        if (!Double.isNaN(y)) {
+          heights[i] = Double.isNaN(heights[i]) ? y : Math.max(heights[i], y);
+        }
+        if (i < to) {
+          double midX = (xs[i] + xs[i + 1]) / 2d;
+          if (topSides[i] == null
+              || PolyUtils.yAtX(side, midX) > PolyUtils.yAtX(topSides[i], midX)) {
+            topSides[i] = side;
+          }
+        }
+      }
+    }
+    maxHeights = new double[2 * xs.length];
+    for (int i = 0; i < xs.length; i++) {
+      maxHeights[xs.length + i] = Double.isNaN(heights[i]) ? Double.NEGATIVE_INFINITY : heights[i];
+    }
+    for (int i = xs.length - 1; i > 0; i--) {
+      maxHeights[i] = Math.max(maxHeights[2 * i], maxHeights[2 * i + 1]);
+    }
   }
 
   public static Terrain fromPath(
@@ -65,4 +95,89 @@ public record Terrain(Poly poly, DoubleRange withinBordersXRange) {
     path = path.add(maxX, minY - terrainH).moveBy(-maxX, 0);
     return new Terrain(path.toPoly(), new DoubleRange(borderW, maxX - borderW));
   }
+
+  // same as PolyUtils.maxYAtX(poly(), x), in O(log n)
+  public double heightAt(double x) {
+    x = x + 0d;
+    int i = Arrays.binarySearch(xs, x);
+    if (i >= 0) {
+      return heights[i];
+    }
+    i = -i - 1;
+    if (i == 0 || i == xs.length || topSides[i - 1] == null) {
+      return Double.NaN;
+    }
+    return PolyUtils.yAtX(topSides[i - 1], x);
+  }
+
+  public double maxHeightAt(DoubleRange xRange) {
+    double max = maxHeight(xRange.min() + 0d, xRange.max() + 0d);
+    double minY = heightAt(xRange.min());
+    if (!Double.isNaN(minY)) {
+      max = Math.max(max, minY);
+    }
+    double maxY = heightAt(xRange.max());
+    if (!Double.isNaN(maxY)) {
+      max = Math.max(max, maxY);
+    }
+    if (max == Double.NEGATIVE_INFINITY) {
+      throw new IllegalArgumentException(
+          "Cannot find a terrain max y in range %.1f, %.1f.".formatted(xRange.min(), xRange.max()));
+    }
+    return max;
+  }
+
+  private double maxHeight(double minX, double maxX) {
+    int from = Arrays.binarySearch(xs, minX);
+    from = from >= 0 ? from : (-from - 1);
+    int to = Arrays.binarySearch(xs, maxX);
+    to = to >= 0 ? (to + 1) : (-to - 1);
+    double max = Double.NEGATIVE_INFINITY;
+    from = from + xs.length;
+    to = to + xs.length;
+    while (from < to) {
+      if ((from & 1) == 1) {
+        max = Math.max(max, maxHeights[from]);
+        from = from + 1;
+      }
+      if ((to & 1) == 1) {
+        to = to - 1;
+        max = Math.max(max, maxHeights[to]);
+      }
+      from = from / 2;
+      to = to / 2;
+    }
+    return max;
+  }
+
+  public Poly poly() {
+    return poly;
+  }
+
+  public DoubleRange withinBordersXRange() {
+    return withinBordersXRange;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Terrain terrain = (Terrain) o;
+    return Objects.equals(poly, terrain.poly)
+        && Objects.equals(withinBordersXRange, terrain.withinBordersXRange);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(poly, withinBordersXRange);
+  }
+
+  @Override
+  public String toString() {
+    return "Terrain[poly=" + poly + ", withinBordersXRange=" + withinBordersXRange + "]";
+  }
 }
@@ -29,7 +29,10 @@ public class AgentsObservation {
 
   public record Agent(List<Poly> polies, double terrainHeight) {}
 
-  private final List<Agent> agents;
+  private final ObservationStore store;
+  private final int index;
+  private List<Agent> agents;
+  private List<Double> terrainHeights;
   private BoundingBox allBoundingBox;
   private List<BoundingBox> boundingBoxes;
   private List<Point> centers;
@@ -42,12 +45,32 @@ public class AgentsObservation {
 
   public AgentsObservation(List<Agent> agents) {
     this.agents = agents;
+    store = null;
+    index = -1;
+  }
+
+  AgentsObservation(ObservationStore store, int index) {
+    this.store = store;
+    this.index = index;
   }
 
   public List<Agent> getAgents() {
+    if (agents == null) {
+      agents = store.agents(index);
+    }
     return agents;
   }
 
+  public List<Double> getTerrainHeights() {
+    if (terrainHeights == null) {
+      terrainHeights =
+          store != null
+              ? store.terrainHeights(index)
+              : agents.stream().map(Agent::terrainHeight).toList();
+    }
+    return terrainHeights;
+  }
+
   public BoundingBox getAllBoundingBox() {
     if (allBoundingBox == null & !getBoundingBoxes().isEmpty()) {
       allBoundingBox = boundingBoxes.stream().reduce(BoundingBox::enclosing).orElse(null);
@@ -56,7 +79,9 @@ public class AgentsObservation {
   }
 
   public List<BoundingBox> getBoundingBoxes() {
-    if (boundingBoxes == null) {
+    if (boundingBoxes == null && store != null) {
+      boundingBoxes = store.boundingBoxes(index);
+    } else if (boundingBoxes == null) {
       //noinspection OptionalGetWithoutIsPresent
       boundingBoxes =
           agents.stream()
@@ -69,7 +94,9 @@ public class AgentsObservation {
   }
 
   public List<Point> getCenters() {
-    if (centers == null) {
+    if (centers == null && store != null) {
+      centers = store.centers(index);
+    } else if (centers == null) {
       centers =
           agents.stream()
               .map(a -> Point.average(a.polies.stream().map(Poly::center).toArray(Point[]::new)))
@@ -0,0 +1,188 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.engine.SnapshotPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class BatchRunner<A, O> implements AutoCloseable {
+
+  private static final Logger L = Logger.getLogger(BatchRunner.class.getName());
+
+  private final Task<A, O> task;
+  private final Supplier<Engine> engineSupplier;
+  private final ExecutorService executorService;
+
+  public BatchRunner(Task<A, O> task, Supplier<Engine> engineSupplier, int nOfThreads) {
+    this.task = task;
+    this.engineSupplier = engineSupplier;
+    executorService = Executors.newWorkStealingPool(nOfThreads);
+  }
+
+  public BatchRunner(Task<A, O> task, Supplier<Engine> engineSupplier) {
+    this(task, engineSupplier, Runtime.getRuntime().availableProcessors());
+  }
+
+  public BatchRunner(Task<A, O> task) {
+    this(task, BatchRunner::serviceLoadedEngine);
+  }
+
+  public record Result<A, O>(int index, A agent, O outcome) {}
+
+  public static class Batch<A, O> {
+    private final List<CompletableFuture<Result<A, O>>> evaluations;
+    private final List<CompletableFuture<Result<A, O>>> futures;
+    private final AtomicBoolean cancelled;
+
+    private Batch(
+        List<CompletableFuture<Result<A, O>>> evaluations,
+        List<CompletableFuture<Result<A, O>>> futures,
+        AtomicBoolean cancelled) {
+      this.evaluations = evaluations;
+      this.futures = futures;
+      this.cancelled = cancelled;
+    }
+
+    public void cancel() {
+      cancelled.set(true);
+      // cancelling the evaluations also completes the futures derived from them
+      evaluations.forEach(f -> f.cancel(false));
+    }
+
+    public List<CompletableFuture<Result<A, O>>> futures() {
+      return futures;
+    }
+
+    public List<O> get() throws InterruptedException, ExecutionException {
+      List<O> outcomes = new ArrayList<>(futures.size());
+      for (CompletableFuture<Result<A, O>> future : futures) {
+        outcomes.add(future.get().outcome());
+      }
+      return outcomes;
+    }
+
+    public boolean isCancelled() {
+      return cancelled.get();
+    }
+
+    public boolean isDone() {
+      return futures.stream().allMatch(CompletableFuture::isDone);
+    }
+  }
+
+  private static Engine serviceLoadedEngine() {
+    return ServiceLoader.load(Engine.class)
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("No engine implementation found"));
+  }
+
+  @Override
+  public void close() {
+    executorService.shutdownNow();
+    try {
+      if (!executorService.awaitTermination(1, TimeUnit.MINUTES)) {
+        L.warning("Batch runner workers did not terminate");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private Result<A, O> evaluate(
+      int index, Supplier<? extends A> agentSupplier, AtomicBoolean cancelled) {
+    if (cancelled.get()) {
+      throw new CancellationException();
+    }
+    // each evaluation gets its own agent and engine, created and used by the worker thread only
+    A agent = agentSupplier.get();
+    Engine engine = engineSupplier.get();
+    engine.setSnapshotPolicy(SnapshotPolicy.NONE);
+    O outcome =
+        task.run(
+            agent,
+            engine,
+            snapshot -> {
+              if (cancelled.get()) {
+                throw new CancellationException();
+              }
+            });
+    return new Result<>(index, agent, outcome);
+  }
+
+  public List<O> run(List<? extends Supplier<? extends A>> agentSuppliers)
+      throws InterruptedException, ExecutionException {
+    return submit(agentSuppliers, r -> {}).get();
+  }
+
+  public Batch<A, O> submit(
+      List<? extends Supplier<? extends A>> agentSuppliers,
+      Consumer<? super Result<A, O>> resultConsumer) {
+    AtomicBoolean cancelled = new AtomicBoolean(false);
+    List<CompletableFuture<Result<A, O>>> evaluations = new ArrayList<>(agentSuppliers.size());
+    List<CompletableFuture<Result<A, O>>> futures = new ArrayList<>(agentSuppliers.size());
+    for (int i = 0; i < agentSuppliers.size(); i++) {
+      int index = i;
+      Supplier<? extends A> agentSupplier = agentSuppliers.get(i);
+      CompletableFuture<Result<A, O>> evaluation =
+          CompletableFuture.supplyAsync(
+              () -> evaluate(index, agentSupplier, cancelled), executorService);
+      evaluations.add(evaluation);
+      futures.add(
+          evaluation.whenComplete(
+              (result, throwable) -> {
+                if (result != null) {
+                  try {
+                    resultConsumer.accept(result);
+                  } catch (RuntimeException e) {
+                    L.log(
+                        Level.WARNING,
+                        String.format("Cannot consume result of agent %d: %s", index, e),
+                        e);
+                  }
+                } else if (!cancelled.get()) {
+                  L.log(
+                      Level.WARNING,
+                      String.format("Cannot evaluate agent %d: %s", index, throwable),
+                      throwable);
+                }
+              }));
+    }
+    return new Batch<>(
+        Collections.unmodifiableList(evaluations),
+        Collections.unmodifiableList(futures),
+        cancelled);
+  }
+}
@@ -0,0 +1,51 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+// an observation is collected only if keep() is called before the next observe(), which discards
+// it otherwise; hence, it can be checked (e.g., by a stop condition) before being collected
+public interface ObservationCollector {
+  AgentsObservation observe(
+      double t,
+      List<? extends EmbodiedAgent> agents,
+      ToDoubleFunction<? super EmbodiedAgent> terrainHeightFunction);
+
+  void keep();
+
+  default AgentsObservation add(
+      double t,
+      List<? extends EmbodiedAgent> agents,
+      ToDoubleFunction<? super EmbodiedAgent> terrainHeightFunction) {
+    AgentsObservation observation = observe(t, agents, terrainHeightFunction);
+    keep();
+    return observation;
+  }
+
+  Outcome<AgentsObservation> toOutcome(Outcome.Stop stop);
+
+  default Outcome<AgentsObservation> toOutcome() {
+    return toOutcome(null);
+  }
+}
@@ -0,0 +1,323 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.tasks;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.ToDoubleFunction;
+
+public class ObservationStore implements ObservationCollector {
+
+  private static final int INITIAL_CAPACITY = 256;
+
+  // each xEnds[i] is the (exclusive) end index of the children of the i-th x
+  private double[] times;
+  private int[] observationEnds;
+  private double[] terrainHeights;
+  private int[] agentEnds;
+  private int[] polyEnds;
+  private double[] coordinates;
+  private int nOfObservations;
+  private int nOfAgents;
+  private int nOfPolies;
+  private int nOfCoordinates;
+  private boolean pending;
+
+  public ObservationStore() {
+    times = new double[INITIAL_CAPACITY];
+    observationEnds = new int[INITIAL_CAPACITY];
+    terrainHeights = new double[INITIAL_CAPACITY];
+    agentEnds = new int[INITIAL_CAPACITY];
+    polyEnds = new int[INITIAL_CAPACITY];
+    coordinates = new double[INITIAL_CAPACITY * 16];
+  }
+
+  private static double[] ensure(double[] array, int size) {
+    return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+  }
+
+  private static int[] ensure(int[] array, int size) {
+    return size <= array.length ? array : Arrays.copyOf(array, Math.max(size, array.length * 2));
+  }
+
+  private static int start(int[] ends, int i) {
+    return i == 0 ? 0 : ends[i - 1];
+  }
+
+  @Override
+  public AgentsObservation observe(
+      double t,
+      List<? extends EmbodiedAgent> agents,
+      ToDoubleFunction<? super EmbodiedAgent> terrainHeightFunction) {
+    if (nOfObservations > 0 && t <= times[nOfObservations - 1]) {
+      throw new IllegalArgumentException(
+          "Observation time %.3f is not after last time %.3f"
+              .formatted(t, times[nOfObservations - 1]));
+    }
+    // the pending observation, if any, is overwritten
+    nOfAgents = start(observationEnds, nOfObservations);
+    nOfPolies = start(agentEnds, nOfAgents);
+    nOfCoordinates = start(polyEnds, nOfPolies);
+    for (EmbodiedAgent agent : agents) {
+      terrainHeights = ensure(terrainHeights, nOfAgents + 1);
+      terrainHeights[nOfAgents] = terrainHeightFunction.applyAsDouble(agent);
+      for (Body body : agent.bodyParts()) {
+        int nOfBodyCoordinates = 2 * body.nOfVertexes();
+        coordinates = ensure(coordinates, nOfCoordinates + nOfBodyCoordinates);
+        body.fillVertices(coordinates, nOfCoordinates);
+        nOfCoordinates = nOfCoordinates + nOfBodyCoordinates;
+        polyEnds = ensure(polyEnds, nOfPolies + 1);
+        polyEnds[nOfPolies] = nOfCoordinates;
+        nOfPolies = nOfPolies + 1;
+      }
+      agentEnds = ensure(agentEnds, nOfAgents + 1);
+      agentEnds[nOfAgents] = nOfPolies;
+      nOfAgents = nOfAgents + 1;
+    }
+    times = ensure(times, nOfObservations + 1);
+    observationEnds = ensure(observationEnds, nOfObservations + 1);
+    times[nOfObservations] = t;
+    observationEnds[nOfObservations] = nOfAgents;
+    pending = true;
+    return new AgentsObservation(this, nOfObservations);
+  }
+
+  @Override
+  public void keep() {
+    if (!pending) {
+      throw new IllegalStateException("No observation to keep");
+    }
+    nOfObservations = nOfObservations + 1;
+    pending = false;
+  }
+
+  List<AgentsObservation.Agent> agents(int observationIndex) {
+    List<AgentsObservation.Agent> agents = new ArrayList<>();
+    for (int a = start(observationEnds, observationIndex);
+        a < observationEnds[observationIndex];
+        a++) {
+      List<Poly> polies = new ArrayList<>();
+      for (int p = start(agentEnds, a); p < agentEnds[a]; p++) {
+        int from = start(polyEnds, p);
+        Point[] vertexes = new Point[(polyEnds[p] - from) / 2];
+        for (int v = 0; v < vertexes.length; v++) {
+          vertexes[v] = new Point(coordinates[from + 2 * v], coordinates[from + 2 * v + 1]);
+        }
+        polies.add(new Poly(vertexes));
+      }
+      agents.add(new AgentsObservation.Agent(polies, terrainHeights[a]));
+    }
+    return agents;
+  }
+
+  public SortedMap<Double, AgentsObservation> asSortedMap() {
+    return new View(0, nOfObservations);
+  }
+
+  List<BoundingBox> boundingBoxes(int observationIndex) {
+    List<BoundingBox> boxes = new ArrayList<>();
+    for (int a = start(observationEnds, observationIndex);
+        a < observationEnds[observationIndex];
+        a++) {
+      double minX = Double.POSITIVE_INFINITY;
+      double minY = Double.POSITIVE_INFINITY;
+      double maxX = Double.NEGATIVE_INFINITY;
+      double maxY = Double.NEGATIVE_INFINITY;
+      for (int c = start(polyEnds, start(agentEnds, a));
+          c < start(polyEnds, agentEnds[a]);
+          c = c + 2) {
+        minX = Math.min(minX, coordinates[c]);
+        maxX = Math.max(maxX, coordinates[c]);
+        minY = Math.min(minY, coordinates[c + 1]);
+        maxY = Math.max(maxY, coordinates[c + 1]);
+      }
+      boxes.add(new BoundingBox(new Point(minX, minY), new Point(maxX, maxY)));
+    }
+    return boxes;
+  }
+
+  List<Point> centers(int observationIndex) {
+    List<Point> centers = new ArrayList<>();
+    for (int a = start(observationEnds, observationIndex);
+        a < observationEnds[observationIndex];
+        a++) {
+      // average of the centers of the polies, as for AgentsObservation built from polies
+      double x = 0;
+      double y = 0;
+      int nOfAgentPolies = agentEnds[a] - start(agentEnds, a);
+      for (int p = start(agentEnds, a); p < agentEnds[a]; p++) {
+        double px = 0;
+        double py = 0;
+        int from = start(polyEnds, p);
+        for (int c = from; c < polyEnds[p]; c = c + 2) {
+          px = px + coordinates[c];
+          py = py + coordinates[c + 1];
+        }
+        int nOfVertexes = (polyEnds[p] - from) / 2;
+        x = x + px / nOfVertexes;
+        y = y + py / nOfVertexes;
+      }
+      centers.add(new Point(x / nOfAgentPolies, y / nOfAgentPolies));
+    }
+    return centers;
+  }
+
+  @Override
+  public Outcome<AgentsObservation> toOutcome(Outcome.Stop stop) {
+    return new Outcome<>(asSortedMap(), stop);
+  }
+
+  public int size() {
+    return nOfObservations;
+  }
+
+  List<Double> terrainHeights(int observationIndex) {
+    int from = start(observationEnds, observationIndex);
+    return Arrays.stream(terrainHeights, from, observationEnds[observationIndex]).boxed().toList();
+  }
+
+  private class View extends AbstractMap<Double, AgentsObservation>
+      implements SortedMap<Double, AgentsObservation> {
+    private final int from;
+    private final int to;
+
+    private View(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    // index of the first observation in this view with time >= t
+    private int ceilingIndex(double t) {
+      int i = Arrays.binarySearch(times, from, to, t);
+      return i >= 0 ? i : -(i + 1);
+    }
+
+    private int indexOf(Object key) {
+      if (key instanceof Double t) {
+        int i = Arrays.binarySearch(times, from, to, t);
+        return i >= 0 ? i : -1;
+      }
+      return -1;
+    }
+
+    @Override
+    public Comparator<? super Double> comparator() {
+      return null;
+    }
+
+    @Override
+    public SortedMap<Double, AgentsObservation> subMap(Double fromKey, Double toKey) {
+      if (fromKey > toKey) {
+        throw new IllegalArgumentException("fromKey > toKey");
+      }
+      return new View(ceilingIndex(fromKey), ceilingIndex(toKey));
+    }
+
+    @Override
+    public SortedMap<Double, AgentsObservation> headMap(Double toKey) {
+      return new View(from, ceilingIndex(toKey));
+    }
+
+    @Override
+    public SortedMap<Double, AgentsObservation> tailMap(Double fromKey) {
+      return new View(ceilingIndex(fromKey), to);
+    }
+
+    @Override
+    public Double firstKey() {
+      if (from >= to) {
+        throw new NoSuchElementException();
+      }
+      return times[from];
+    }
+
+    @Override
+    public Double lastKey() {
+      if (from >= to) {
+        throw new NoSuchElementException();
+      }
+      return times[to - 1];
+    }
+
+    @Override
+    public int size() {
+      return to - from;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Override
+    public AgentsObservation get(Object key) {
+      int i = indexOf(key);
+      return i >= 0 ? new AgentsObservation(ObservationStore.this, i) : null;
+    }
+
+    @Override
+    public Set<Entry<Double, AgentsObservation>> entrySet() {
+      return new AbstractSet<>() {
+        @Override
+        public Iterator<Entry<Double, AgentsObservation>> iterator() {
+          return new Iterator<>() {
+            private int i = from;
+
+            @Override
+            public boolean hasNext() {
+              return i < to;
+            }
+
+            @Override
+            public Entry<Double, AgentsObservation> next() {
+              if (i >= to) {
+                throw new NoSuchElementException();
+              }
+              Entry<Double, AgentsObservation> entry =
+                  Map.entry(times[i], new AgentsObservation(ObservationStore.this, i));
+              i = i + 1;
+              return entry;
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return to - from;
+        }
+      };
+    }
+  }
+}
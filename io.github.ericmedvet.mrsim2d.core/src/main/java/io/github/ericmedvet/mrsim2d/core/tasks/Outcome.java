@@ -21,10 +21,13 @@ package io.github.ericmedvet.mrsim2d.core.tasks;
 
 import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
-import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.SortedMap;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
 
 public class Outcome<O extends AgentsObservation> {
 
@@ -32,14 +35,48 @@ public class Outcome<O extends AgentsObservation> {
   protected final SortedMap<Double, O> observations;
   private final Map<Key, Double> metricMap;
   private final Map<DoubleRange, Outcome<O>> subOutcomes;
+  private final double firstT;
+  private final double lastT;
+  private final double previousT;
+  private final double nextT;
+  private final Stop stop;
 
-  public Outcome(SortedMap<Double, O> observations) {
+  public Outcome(SortedMap<Double, O> observations, Stop stop) {
     this.observations = observations;
+    this.stop = stop;
     metricMap = new HashMap<>();
     subOutcomes = new HashMap<>();
+    firstT = Double.NaN;
+    lastT = Double.NaN;
+    previousT = Double.NaN;
+    nextT = Double.NaN;
+  }
+
+  public Outcome(SortedMap<Double, O> observations) {
+    this(observations, null);
   }
 
-  private enum Aggregate {
+  // streamed outcome: metrics and sub outcomes are computed in advance, observations are not kept;
+  // previousT and nextT are the times of the observations just outside this (sub) outcome, if any
+  Outcome(
+      double firstT,
+      double lastT,
+      double previousT,
+      double nextT,
+      Map<Key, Double> metricMap,
+      Map<DoubleRange, Outcome<O>> subOutcomes,
+      Stop stop) {
+    observations = null;
+    this.stop = stop;
+    this.firstT = firstT;
+    this.lastT = lastT;
+    this.previousT = previousT;
+    this.nextT = nextT;
+    this.metricMap = metricMap;
+    this.subOutcomes = subOutcomes;
+  }
+
+  public enum Aggregate {
     INITIAL,
     FINAL,
     AVERAGE,
@@ -47,7 +84,7 @@ public class Outcome<O extends AgentsObservation> {
     MAX
   }
 
-  private enum Metric {
+  public enum Metric {
     X,
     Y,
     TERRAIN_H,
@@ -60,12 +97,15 @@ public class Outcome<O extends AgentsObservation> {
     BB_MIN_Y
   }
 
-  private enum Subject {
+  public enum Subject {
     FIRST,
     ALL
   }
 
-  private record Key(Metric metric, Aggregate aggregate, Subject subject) {}
+  public record Key(Metric metric, Aggregate aggregate, Subject subject) {}
+
+  // plannedT is the time at which the run would have ended, had it not been stopped
+  public record Stop(String reason, double t, double plannedT) {}
 
   public double allAgentsAverageHeight() {
     return get(Aggregate.AVERAGE, Metric.BB_H, Subject.ALL);
@@ -92,7 +132,44 @@ public class Outcome<O extends AgentsObservation> {
   }
 
   public double duration() {
-    return observations.lastKey() - observations.firstKey();
+    return isEmpty() ? 0d : lastT() - firstT();
+  }
+
+  // the value of the function on the sub outcome after transientTime, or 0 if there are no
+  // observations after transientTime, e.g., because the run has been stopped before
+  public double afterTransient(double transientTime, ToDoubleFunction<Outcome<O>> function) {
+    if (duration() < transientTime) {
+      return 0d;
+    }
+    Outcome<O> subOutcome = subOutcome(new DoubleRange(transientTime, duration()));
+    return subOutcome.isEmpty() ? 0d : function.applyAsDouble(subOutcome);
+  }
+
+  private double firstT() {
+    return isStreamed() ? firstT : observations.firstKey();
+  }
+
+  private double lastT() {
+    return isStreamed() ? lastT : observations.lastKey();
+  }
+
+  // present only if the run has been stopped before its natural end
+  public Optional<Stop> stop() {
+    return Optional.ofNullable(stop);
+  }
+
+  // the time between the stop and the planned end of the run, 0 if the run has not been stopped
+  public double missingDuration() {
+    return stop == null ? 0d : Math.max(0d, stop.plannedT() - stop.t());
+  }
+
+  public boolean isStreamed() {
+    return observations == null;
+  }
+
+  // a run stopped at its first observation gives an empty outcome
+  public boolean isEmpty() {
+    return isStreamed() ? Double.isNaN(firstT) : observations.isEmpty();
   }
 
   public double firstAgentAverageArea() {
@@ -135,21 +212,30 @@ public class Outcome<O extends AgentsObservation> {
 
   private double get(Aggregate aggregate, Metric metric, Subject subject) {
     Double value = metricMap.get(new Key(metric, aggregate, subject));
+    if (value == null && isStreamed()) {
+      throw new IllegalStateException(
+          "Metric %s has not been streamed".formatted(new Key(metric, aggregate, subject)));
+    }
     if (value == null) {
       value =
           switch (aggregate) {
-            case FINAL -> get(metric, subject, observations.get(observations.lastKey()));
-            case INITIAL -> get(metric, subject, observations.get(observations.firstKey()));
+              // as for streamed outcomes
+            case FINAL -> observations.isEmpty()
+                ? Double.NaN
+                : value(metric, subject, observations.get(observations.lastKey()));
+            case INITIAL -> observations.isEmpty()
+                ? Double.NaN
+                : value(metric, subject, observations.get(observations.firstKey()));
             case AVERAGE -> observations.values().stream()
-                .mapToDouble(o -> get(metric, subject, o))
+                .mapToDouble(o -> value(metric, subject, o))
                 .average()
                 .orElse(0d);
             case MIN -> observations.values().stream()
-                .mapToDouble(o -> get(metric, subject, o))
+                .mapToDouble(o -> value(metric, subject, o))
                 .min()
                 .orElse(0d);
             case MAX -> observations.values().stream()
-                .mapToDouble(o -> get(metric, subject, o))
+                .mapToDouble(o -> value(metric, subject, o))
                 .max()
                 .orElse(0d);
           };
@@ -158,7 +244,7 @@ public class Outcome<O extends AgentsObservation> {
     return value;
   }
 
-  private double get(Metric metric, Subject subject, AgentsObservation observation) {
+  static double value(Metric metric, Subject subject, AgentsObservation observation) {
     return switch (metric) {
       case X -> subject.equals(Subject.FIRST)
           ? observation.getFirstAgentCenter().x()
@@ -168,14 +254,12 @@ public class Outcome<O extends AgentsObservation> {
           : observation.getAllBoundingBox().center().y();
       case TERRAIN_H -> {
         if (subject.equals(Subject.FIRST)) {
-          yield observation.getFirstAgentCenter().y()
-              - observation.getAgents().get(0).terrainHeight();
+          yield observation.getFirstAgentCenter().y() - observation.getTerrainHeights().get(0);
         } else {
-          yield observation.getAgents().stream()
-              .mapToDouble(
-                  a ->
-                      Point.average(a.polies().stream().map(Poly::center).toArray(Point[]::new)).y()
-                          - a.terrainHeight())
+          List<Point> centers = observation.getCenters();
+          List<Double> terrainHeights = observation.getTerrainHeights();
+          yield IntStream.range(0, centers.size())
+              .mapToDouble(i -> centers.get(i).y() - terrainHeights.get(i))
               .average()
               .orElse(0d);
         }
@@ -206,6 +290,17 @@ public class Outcome<O extends AgentsObservation> {
 
   public Outcome<O> subOutcome(DoubleRange tRange) {
     Outcome<O> subOutcome = subOutcomes.get(tRange);
+    if (subOutcome == null && isStreamed()) {
+      // any range including exactly the same observations of a streamed one is fine
+      return subOutcomes.values().stream()
+          .filter(o -> o.covers(tRange))
+          .findFirst()
+          .orElseThrow(
+              () ->
+                  new IllegalArgumentException(
+                      "Sub outcome on %s has not been streamed: available ones are %s"
+                          .formatted(tRange, subOutcomes.keySet())));
+    }
     if (subOutcome == null) {
       subOutcome = new Outcome<>(observations.subMap(tRange.min(), tRange.max()));
       if (subOutcomes.size() >= N_OF_CACHED_SUB_OUTCOMES) {
@@ -217,12 +312,22 @@ public class Outcome<O extends AgentsObservation> {
     return subOutcome;
   }
 
+  private boolean covers(DoubleRange tRange) {
+    return previousT < tRange.min()
+        && tRange.min() <= firstT
+        && lastT < tRange.max()
+        && tRange.max() <= nextT;
+  }
+
   @Override
   public String toString() {
-    return "Outcome[%.1f->%.1f]".formatted(observations.firstKey(), observations.lastKey());
+    return "Outcome[%.1f->%.1f]".formatted(firstT(), lastT());
   }
 
   public SortedMap<Double, O> getObservations() {
+    if (isStreamed()) {
+      throw new UnsupportedOperationException("Observations are not kept by a streamed outcome");
+    }
     return observations;
   }
 }
@@ -0,0 +1,186 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.tasks;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.util.CompensatedSum;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+public class OutcomeAccumulator implements ObservationCollector {
+
+  private final List<Outcome.Key> keys;
+  private final List<Probe> probes;
+  private final int[] keyProbeIndexes;
+  private final Window all;
+  private final Map<DoubleRange, Window> windows;
+  private double pendingT;
+  private AgentsObservation pendingObservation;
+
+  public OutcomeAccumulator(Collection<Outcome.Key> keys, Collection<DoubleRange> tRanges) {
+    this.keys = List.copyOf(keys);
+    probes = this.keys.stream().map(k -> new Probe(k.metric(), k.subject())).distinct().toList();
+    keyProbeIndexes =
+        this.keys.stream()
+            .mapToInt(k -> probes.indexOf(new Probe(k.metric(), k.subject())))
+            .toArray();
+    all = new Window(new DoubleRange(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+    windows = new LinkedHashMap<>();
+    tRanges.forEach(r -> windows.put(r, new Window(r)));
+  }
+
+  private record Probe(Outcome.Metric metric, Outcome.Subject subject) {}
+
+  // mimics DoubleStream.average(), min(), and max(), for consistency with non-streamed outcomes
+  private static class Fold {
+    private final CompensatedSum sum = new CompensatedSum();
+    private double first = Double.NaN;
+    private double last = Double.NaN;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private int n;
+
+    private void add(double value) {
+      if (n == 0) {
+        first = value;
+      }
+      last = value;
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+      sum.add(value);
+      n = n + 1;
+    }
+
+    private double get(Outcome.Aggregate aggregate) {
+      if (n == 0) {
+        return switch (aggregate) {
+          case INITIAL, FINAL -> Double.NaN;
+          case AVERAGE, MIN, MAX -> 0d;
+        };
+      }
+      return switch (aggregate) {
+        case INITIAL -> first;
+        case FINAL -> last;
+        case AVERAGE -> sum.get() / n;
+        case MIN -> min;
+        case MAX -> max;
+      };
+    }
+  }
+
+  private class Window {
+    private final DoubleRange tRange;
+    private final Fold[] folds;
+    private double firstT = Double.NaN;
+    private double lastT = Double.NaN;
+    private double previousT = Double.NEGATIVE_INFINITY;
+    private double nextT = Double.POSITIVE_INFINITY;
+
+    private Window(DoubleRange tRange) {
+      this.tRange = tRange;
+      folds = new Fold[keys.size()];
+      for (int i = 0; i < folds.length; i++) {
+        folds[i] = new Fold();
+      }
+    }
+
+    // as for SortedMap.subMap(), the lower bound is inclusive, the upper one is exclusive
+    private void add(double t, double[] probeValues) {
+      if (t < tRange.min()) {
+        previousT = t;
+      } else if (t < tRange.max()) {
+        if (Double.isNaN(firstT)) {
+          firstT = t;
+        }
+        lastT = t;
+        for (int i = 0; i < folds.length; i++) {
+          folds[i].add(probeValues[keyProbeIndexes[i]]);
+        }
+      } else if (nextT == Double.POSITIVE_INFINITY) {
+        nextT = t;
+      }
+    }
+
+    private Map<Outcome.Key, Double> metricMap() {
+      Map<Outcome.Key, Double> metricMap = new HashMap<>();
+      for (int i = 0; i < folds.length; i++) {
+        metricMap.put(keys.get(i), folds[i].get(keys.get(i).aggregate()));
+      }
+      return metricMap;
+    }
+  }
+
+  public AgentsObservation add(double t, AgentsObservation observation) {
+    double[] probeValues = new double[probes.size()];
+    for (int i = 0; i < probeValues.length; i++) {
+      probeValues[i] = Outcome.value(probes.get(i).metric(), probes.get(i).subject(), observation);
+    }
+    all.add(t, probeValues);
+    windows.values().forEach(w -> w.add(t, probeValues));
+    return observation;
+  }
+
+  @Override
+  public void keep() {
+    if (pendingObservation == null) {
+      throw new IllegalStateException("No observation to keep");
+    }
+    add(pendingT, pendingObservation);
+    pendingObservation = null;
+  }
+
+  @Override
+  public AgentsObservation observe(
+      double t,
+      List<? extends EmbodiedAgent> agents,
+      ToDoubleFunction<? super EmbodiedAgent> terrainHeightFunction) {
+    pendingT = t;
+    pendingObservation =
+        new AgentsObservation(
+            agents.stream()
+                .map(
+                    a ->
+                        new AgentsObservation.Agent(
+                            a.bodyParts().stream().map(Body::poly).toList(),
+                            terrainHeightFunction.applyAsDouble(a)))
+                .toList());
+    return pendingObservation;
+  }
+
+  @Override
+  public Outcome<AgentsObservation> toOutcome(Outcome.Stop stop) {
+    Map<DoubleRange, Outcome<AgentsObservation>> subOutcomes = new LinkedHashMap<>();
+    windows.forEach(
+        (r, w) ->
+            subOutcomes.put(
+                r,
+                new Outcome<>(
+                    w.firstT, w.lastT, w.previousT, w.nextT, w.metricMap(), Map.of(), null)));
+    return new Outcome<>(
+        all.firstT, all.lastT, all.previousT, all.nextT, all.metricMap(), subOutcomes, stop);
+  }
+}
@@ -0,0 +1,161 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.tasks;
+
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+// a stopped run gives an outcome with the observations collected before the stop, i.e., without
+// the one meeting the condition; metrics which are rates over time should account for
+// Outcome.missingDuration(), not to reward stopped runs
+@FunctionalInterface
+public interface StopCondition {
+
+  StopCondition NEVER = duration -> (t, observation) -> Optional.empty();
+
+  // a new checker is built for each run, as checkers may keep a state; duration is the one of the
+  // task running the checker
+  Checker checker(double duration);
+
+  @FunctionalInterface
+  interface Checker {
+    // returns the reason for stopping, if the run has to be stopped
+    Optional<String> check(double t, AgentsObservation observation);
+  }
+
+  // a threshold which may be updated while tasks run, e.g., to the fitness of the current best
+  // agent; thresholds are shared by name, so that callers can update the ones of built conditions
+  final class Threshold implements DoubleSupplier {
+    private static final Map<String, Threshold> THRESHOLDS = new ConcurrentHashMap<>();
+    private volatile double value = Double.NEGATIVE_INFINITY;
+
+    private Threshold() {}
+
+    public static Threshold named(String name) {
+      return THRESHOLDS.computeIfAbsent(name, n -> new Threshold());
+    }
+
+    @Override
+    public double getAsDouble() {
+      return value;
+    }
+
+    public void set(double value) {
+      this.value = value;
+    }
+  }
+
+  static StopCondition any(StopCondition... conditions) {
+    return duration -> {
+      List<Checker> checkers = Arrays.stream(conditions).map(c -> c.checker(duration)).toList();
+      return (t, observation) ->
+          checkers.stream().map(c -> c.check(t, observation)).flatMap(Optional::stream).findFirst();
+    };
+  }
+
+  static StopCondition notFinite(double maxAbsCoordinate) {
+    return duration ->
+        (t, observation) ->
+            observation.getCenters().stream()
+                    .anyMatch(
+                        c ->
+                            !Double.isFinite(c.x())
+                                || !Double.isFinite(c.y())
+                                || Math.abs(c.x()) > maxAbsCoordinate
+                                || Math.abs(c.y()) > maxAbsCoordinate)
+                ? Optional.of("not finite")
+                : Optional.empty();
+  }
+
+  static StopCondition outOfBounds(DoubleRange xRange, DoubleRange yRange) {
+    return duration ->
+        (t, observation) ->
+            observation.getCenters().stream()
+                    .anyMatch(c -> !xRange.contains(c.x()) || !yRange.contains(c.y()))
+                ? Optional.of("out of bounds")
+                : Optional.empty();
+  }
+
+  static StopCondition outOfTerrain(Terrain terrain) {
+    return outOfBounds(
+        terrain.withinBordersXRange(),
+        new DoubleRange(terrain.poly().boundingBox().min().y(), Double.POSITIVE_INFINITY));
+  }
+
+  // stops if, in the last time window, the first agent moved along x less than minXDistance
+  static StopCondition noProgress(double tWindow, double minXDistance) {
+    return duration ->
+        new Checker() {
+          private double windowStartT = Double.NaN;
+          private double windowStartX = Double.NaN;
+
+          @Override
+          public Optional<String> check(double t, AgentsObservation observation) {
+            Point center = observation.getFirstAgentCenter();
+            if (center == null) {
+              return Optional.empty();
+            }
+            if (Double.isNaN(windowStartT)) {
+              windowStartT = t;
+              windowStartX = center.x();
+            } else if (t - windowStartT >= tWindow) {
+              if (Math.abs(center.x() - windowStartX) < minXDistance) {
+                return Optional.of("no progress");
+              }
+              windowStartT = t;
+              windowStartX = center.x();
+            }
+            return Optional.empty();
+          }
+        };
+  }
+
+  // stops if the first agent cannot reach an x distance of threshold by the end of the run even
+  // moving at maxXVelocity for the remaining time; the threshold is read at the beginning of each
+  // run, hence it may change across runs
+  static StopCondition xDistanceBound(double maxXVelocity, DoubleSupplier thresholdSupplier) {
+    return duration ->
+        new Checker() {
+          private final double threshold = thresholdSupplier.getAsDouble();
+          private double initialX = Double.NaN;
+
+          @Override
+          public Optional<String> check(double t, AgentsObservation observation) {
+            Point center = observation.getFirstAgentCenter();
+            if (center == null) {
+              return Optional.empty();
+            }
+            if (Double.isNaN(initialX)) {
+              initialX = center.x();
+            }
+            double bound = center.x() - initialX + maxXVelocity * Math.max(0d, duration - t);
+            return bound < threshold ? Optional.of("fitness bound") : Optional.empty();
+          }
+        };
+  }
+}
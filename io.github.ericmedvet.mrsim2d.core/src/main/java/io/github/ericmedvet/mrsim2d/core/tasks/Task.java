@@ -22,6 +22,7 @@ package io.github.ericmedvet.mrsim2d.core.tasks;
 
 import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.engine.SnapshotPolicy;
 import java.util.function.Consumer;
 
 public interface Task<A, O> {
@@ -29,6 +30,13 @@ public interface Task<A, O> {
   O run(A a, Engine engine, Consumer<Snapshot> snapshotConsumer);
 
   default O run(A a, Engine engine) {
-    return run(a, engine, snapshot -> {});
+    // nobody is going to look at snapshots; the policy of the caller is restored afterwards
+    SnapshotPolicy snapshotPolicy = engine.snapshotPolicy();
+    engine.setSnapshotPolicy(SnapshotPolicy.NONE);
+    try {
+      return run(a, engine, snapshot -> {});
+    } finally {
+      engine.setSnapshotPolicy(snapshotPolicy);
+    }
   }
 }
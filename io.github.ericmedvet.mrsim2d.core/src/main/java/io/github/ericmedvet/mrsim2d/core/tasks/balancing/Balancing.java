@@ -28,7 +28,6 @@ import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.*;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -154,7 +153,7 @@ public class Balancing implements Task<Supplier<EmbodiedAgent>, BalancingOutcome
               List.of(
                   new AgentsObservation.Agent(
                       embodiedAgent.bodyParts().stream().map(Body::poly).toList(),
-                      PolyUtils.maxYAtX(terrain.poly(), embodiedAgent.boundingBox().center().x()))),
+                      terrain.heightAt(embodiedAgent.boundingBox().center().x()))),
               swing.angle(),
               swingInContactBodies.contains(ground),
               swing.poly().boundingBox()));
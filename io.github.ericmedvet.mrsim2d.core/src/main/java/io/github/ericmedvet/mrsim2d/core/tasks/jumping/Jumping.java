@@ -20,25 +20,27 @@
 
 package io.github.ericmedvet.mrsim2d.core.tasks.jumping;
 
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
 import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Path;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationCollector;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.OutcomeAccumulator;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -51,10 +53,31 @@ public class Jumping implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsObse
   private static final double INITIAL_Y_GAP = 0.25;
   private final double duration;
   private final double initialYGap;
+  private final Set<Outcome.Key> streamedKeys;
+  private final Set<DoubleRange> streamedTRanges;
+  private final StopCondition stopCondition;
+  private final double controlInterval;
 
-  public Jumping(double duration, double initialYGap) {
+  // if some keys are given, only their metrics are computed, without keeping the observations;
+  // the run ends before duration if the stop condition is met; with a positive control interval,
+  // the agent acts only once every controlInterval
+  public Jumping(
+      double duration,
+      double initialYGap,
+      Set<Outcome.Key> streamedKeys,
+      Set<DoubleRange> streamedTRanges,
+      StopCondition stopCondition,
+      double controlInterval) {
     this.duration = duration;
     this.initialYGap = initialYGap;
+    this.streamedKeys = streamedKeys;
+    this.streamedTRanges = streamedTRanges;
+    this.stopCondition = stopCondition;
+    this.controlInterval = controlInterval;
+  }
+
+  public Jumping(double duration, double initialYGap) {
+    this(duration, initialYGap, Set.of(), Set.of(), StopCondition.NEVER, 0d);
   }
 
   public Jumping(double duration) {
@@ -74,7 +97,7 @@ public class Jumping implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsObse
             new Path(new Point(TERRAIN_W, 0)), TERRAIN_H, TERRAIN_BORDER_W, TERRAIN_BORDER_H);
     engine.perform(new CreateUnmovableBody(terrain.poly()));
     // place agent
-    engine.perform(new AddAgent(embodiedAgent));
+    engine.perform(new AddAgent(embodiedAgent, controlInterval));
     BoundingBox agentBB = embodiedAgent.boundingBox();
     engine.perform(
         new TranslateAgent(
@@ -90,20 +113,27 @@ public class Jumping implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsObse
     engine.perform(
         new TranslateAgent(embodiedAgent, new Point(0, maxY + initialYGap - agentBB.min().y())));
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    StopCondition.Checker stopChecker = stopCondition.checker(duration);
+    ObservationCollector observations =
+        streamedKeys.isEmpty()
+            ? new ObservationStore()
+            : new OutcomeAccumulator(streamedKeys, streamedTRanges);
     while (engine.t() < duration) {
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
-          engine.t(),
-          new AgentsObservation(
-              List.of(
-                  new AgentsObservation.Agent(
-                      embodiedAgent.bodyParts().stream().map(Body::poly).toList(),
-                      PolyUtils.maxYAtX(
-                          terrain.poly(), embodiedAgent.boundingBox().center().x())))));
+      AgentsObservation observation =
+          observations.observe(
+              engine.t(),
+              List.of(embodiedAgent),
+              a -> terrain.heightAt(a.boundingBox().center().x()));
+      // the observation meeting the condition (e.g., of an exploded agent) is not kept
+      Optional<String> stopReason = stopChecker.check(engine.t(), observation);
+      if (stopReason.isPresent()) {
+        return observations.toOutcome(new Outcome.Stop(stopReason.get(), engine.t(), duration));
+      }
+      observations.keep();
     }
     // return
-    return new Outcome<>(new TreeMap<>(observations));
+    return observations.toOutcome();
   }
 }
@@ -20,24 +20,26 @@
 
 package io.github.ericmedvet.mrsim2d.core.tasks.locomotion;
 
+import io.github.ericmedvet.jsdynsym.core.DoubleRange;
 import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
 import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationCollector;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.OutcomeAccumulator;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -49,12 +51,35 @@ public class Locomotion implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
   private final Terrain terrain;
   private final double initialXGap;
   private final double initialYGap;
+  private final Set<Outcome.Key> streamedKeys;
+  private final Set<DoubleRange> streamedTRanges;
+  private final StopCondition stopCondition;
+  private final double controlInterval;
 
-  public Locomotion(double duration, Terrain terrain, double initialXGap, double initialYGap) {
+  // if some keys are given, only their metrics are computed, without keeping the observations;
+  // the run ends before duration if the stop condition is met; with a positive control interval,
+  // the agent acts only once every controlInterval
+  public Locomotion(
+      double duration,
+      Terrain terrain,
+      double initialXGap,
+      double initialYGap,
+      Set<Outcome.Key> streamedKeys,
+      Set<DoubleRange> streamedTRanges,
+      StopCondition stopCondition,
+      double controlInterval) {
     this.duration = duration;
     this.terrain = terrain;
     this.initialXGap = initialXGap;
     this.initialYGap = initialYGap;
+    this.streamedKeys = streamedKeys;
+    this.streamedTRanges = streamedTRanges;
+    this.stopCondition = stopCondition;
+    this.controlInterval = controlInterval;
+  }
+
+  public Locomotion(double duration, Terrain terrain, double initialXGap, double initialYGap) {
+    this(duration, terrain, initialXGap, initialYGap, Set.of(), Set.of(), StopCondition.NEVER, 0d);
   }
 
   public Locomotion(double duration, Terrain terrain) {
@@ -70,7 +95,7 @@ public class Locomotion implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
     EmbodiedAgent embodiedAgent = embodiedAgentSupplier.get();
     // build world
     engine.perform(new CreateUnmovableBody(terrain.poly()));
-    engine.perform(new AddAgent(embodiedAgent));
+    engine.perform(new AddAgent(embodiedAgent, controlInterval));
     // place agent
     BoundingBox agentBB = embodiedAgent.boundingBox();
     engine.perform(
@@ -82,20 +107,27 @@ public class Locomotion implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
     engine.perform(
         new TranslateAgent(embodiedAgent, new Point(0, maxY + initialYGap - agentBB.min().y())));
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    StopCondition.Checker stopChecker = stopCondition.checker(duration);
+    ObservationCollector observations =
+        streamedKeys.isEmpty()
+            ? new ObservationStore()
+            : new OutcomeAccumulator(streamedKeys, streamedTRanges);
     while (engine.t() < duration) {
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
-          engine.t(),
-          new AgentsObservation(
-              List.of(
-                  new AgentsObservation.Agent(
-                      embodiedAgent.bodyParts().stream().map(Body::poly).toList(),
-                      PolyUtils.maxYAtX(
-                          terrain.poly(), embodiedAgent.boundingBox().center().x())))));
+      AgentsObservation observation =
+          observations.observe(
+              engine.t(),
+              List.of(embodiedAgent),
+              a -> terrain.heightAt(a.boundingBox().center().x()));
+      // the observation meeting the condition (e.g., of an exploded agent) is not kept
+      Optional<String> stopReason = stopChecker.check(engine.t(), observation);
+      if (stopReason.isPresent()) {
+        return observations.toOutcome(new Outcome.Stop(stopReason.get(), engine.t(), duration));
+      }
+      observations.keep();
     }
     // return
-    return new Outcome<>(new TreeMap<>(observations));
+    return observations.toOutcome();
   }
 }
@@ -0,0 +1,114 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.tasks.locomotion;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.AssignToPartition;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// runs many locomotion evaluations in the same engine, sharing the terrain: each agent is in its
+// own partition, where it neither collides with, senses (by rays or nfc), attracts, nor links to
+// agents of other partitions, so each outcome is the one of a single locomotion; requires an engine
+// supporting partitions, since agents are placed at the same position
+public class MultiLocomotion
+    implements Task<List<Supplier<EmbodiedAgent>>, List<Outcome<AgentsObservation>>> {
+
+  private static final double INITIAL_X_GAP = 1;
+  private static final double INITIAL_Y_GAP = 0.25;
+  private final double duration;
+  private final Terrain terrain;
+  private final double initialXGap;
+  private final double initialYGap;
+
+  public MultiLocomotion(double duration, Terrain terrain, double initialXGap, double initialYGap) {
+    this.duration = duration;
+    this.terrain = terrain;
+    this.initialXGap = initialXGap;
+    this.initialYGap = initialYGap;
+  }
+
+  public MultiLocomotion(double duration, Terrain terrain) {
+    this(duration, terrain, INITIAL_X_GAP, INITIAL_Y_GAP);
+  }
+
+  @Override
+  public List<Outcome<AgentsObservation>> run(
+      List<Supplier<EmbodiedAgent>> embodiedAgentSuppliers,
+      Engine engine,
+      Consumer<Snapshot> snapshotConsumer) {
+    // create agents
+    List<EmbodiedAgent> embodiedAgents =
+        embodiedAgentSuppliers.stream().map(Supplier::get).toList();
+    // build world
+    engine.perform(new CreateUnmovableBody(terrain.poly()));
+    for (int i = 0; i < embodiedAgents.size(); i = i + 1) {
+      EmbodiedAgent embodiedAgent = embodiedAgents.get(i);
+      engine.perform(new AddAgent(embodiedAgent));
+      if (engine.perform(new AssignToPartition(embodiedAgent.bodyParts(), i)).outcome().isEmpty()) {
+        throw new IllegalStateException(
+            "Cannot assign agent %d to its partition: engine does not support partitions"
+                .formatted(i));
+      }
+      // place agent
+      BoundingBox agentBB = embodiedAgent.boundingBox();
+      engine.perform(
+          new TranslateAgent(
+              embodiedAgent,
+              new Point(terrain.withinBordersXRange().min() + initialXGap - agentBB.min().x(), 0)));
+      agentBB = embodiedAgent.boundingBox();
+      double maxY = terrain.maxHeightAt(agentBB.xRange());
+      engine.perform(
+          new TranslateAgent(embodiedAgent, new Point(0, maxY + initialYGap - agentBB.min().y())));
+    }
+    // run for defined time
+    List<ObservationStore> observations = new ArrayList<>();
+    embodiedAgents.forEach(a -> observations.add(new ObservationStore()));
+    while (engine.t() < duration) {
+      Snapshot snapshot = engine.tick();
+      snapshotConsumer.accept(snapshot);
+      for (int i = 0; i < embodiedAgents.size(); i = i + 1) {
+        observations
+            .get(i)
+            .add(
+                engine.t(),
+                List.of(embodiedAgents.get(i)),
+                a -> terrain.heightAt(a.boundingBox().center().x()));
+      }
+    }
+    // return
+    return observations.stream().map(o -> new Outcome<>(o.asSortedMap())).toList();
+  }
+}
@@ -29,19 +29,15 @@ import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
 import io.github.ericmedvet.mrsim2d.core.agents.gridvsr.GridBody;
 import io.github.ericmedvet.mrsim2d.core.agents.independentvoxel.AbstractIndependentVoxel;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -128,23 +124,16 @@ public class PrebuiltIndependentLocomotion
       }
     }
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    ObservationStore observations = new ObservationStore();
     while (engine.t() < duration) {
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
+      observations.add(
           engine.t(),
-          new AgentsObservation(
-              agents.values().stream()
-                  .filter(Objects::nonNull)
-                  .map(
-                      a ->
-                          new AgentsObservation.Agent(
-                              a.bodyParts().stream().map(Body::poly).toList(),
-                              PolyUtils.maxYAtX(terrain.poly(), a.boundingBox().center().x())))
-                  .toList()));
+          agents.values().stream().filter(Objects::nonNull).toList(),
+          a -> terrain.heightAt(a.boundingBox().center().x()));
     }
     // return
-    return new Outcome<>(new TreeMap<>(observations));
+    return new Outcome<>(observations.asSortedMap());
   }
 }
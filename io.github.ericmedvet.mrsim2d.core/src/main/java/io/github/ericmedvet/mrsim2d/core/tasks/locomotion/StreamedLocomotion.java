@@ -0,0 +1,148 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.tasks.locomotion;
+
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.Snapshot;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.RemoveBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.StreamedTerrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// locomotion on an unbounded terrain: only the chunks within aheadW and behindW from the agent are
+// in the world, chunks are removed when farther than twice those distances
+public class StreamedLocomotion
+    implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsObservation>> {
+
+  private static final double INITIAL_X_GAP = 1;
+  private static final double INITIAL_Y_GAP = 0.1;
+  private static final double AHEAD_W = 20;
+  private static final double BEHIND_W = 10;
+  private final double duration;
+  private final StreamedTerrain terrain;
+  private final double initialXGap;
+  private final double initialYGap;
+  private final double aheadW;
+  private final double behindW;
+
+  public StreamedLocomotion(
+      double duration,
+      StreamedTerrain terrain,
+      double initialXGap,
+      double initialYGap,
+      double aheadW,
+      double behindW) {
+    this.duration = duration;
+    this.terrain = terrain;
+    this.initialXGap = initialXGap;
+    this.initialYGap = initialYGap;
+    this.aheadW = aheadW;
+    this.behindW = behindW;
+  }
+
+  public StreamedLocomotion(double duration, StreamedTerrain terrain) {
+    this(duration, terrain, INITIAL_X_GAP, INITIAL_Y_GAP, AHEAD_W, BEHIND_W);
+  }
+
+  private static final class Chunks {
+    private final Deque<Body> bodies = new ArrayDeque<>();
+    private int firstIndex;
+
+    private int lastIndex() {
+      return firstIndex + bodies.size() - 1;
+    }
+  }
+
+  private Body createChunk(Engine engine, int index) {
+    return engine.perform(new CreateUnmovableBody(terrain.chunk(index))).outcome().orElseThrow();
+  }
+
+  private void updateChunks(Engine engine, BoundingBox agentBB, Chunks chunks) {
+    int firstNeeded = terrain.chunkIndex(agentBB.min().x() - behindW);
+    int lastNeeded = terrain.chunkIndex(agentBB.max().x() + aheadW);
+    if (chunks.bodies.isEmpty()) {
+      chunks.firstIndex = firstNeeded;
+      chunks.bodies.addLast(createChunk(engine, firstNeeded));
+    }
+    while (chunks.lastIndex() < lastNeeded) {
+      chunks.bodies.addLast(createChunk(engine, chunks.lastIndex() + 1));
+    }
+    while (chunks.firstIndex > firstNeeded) {
+      chunks.firstIndex = chunks.firstIndex - 1;
+      chunks.bodies.addFirst(createChunk(engine, chunks.firstIndex));
+    }
+    int firstKept = terrain.chunkIndex(agentBB.min().x() - 2d * behindW);
+    while (chunks.firstIndex < firstKept) {
+      engine.perform(new RemoveBody(chunks.bodies.removeFirst()));
+      chunks.firstIndex = chunks.firstIndex + 1;
+    }
+    int lastKept = terrain.chunkIndex(agentBB.max().x() + 2d * aheadW);
+    while (chunks.lastIndex() > lastKept) {
+      engine.perform(new RemoveBody(chunks.bodies.removeLast()));
+    }
+  }
+
+  @Override
+  public Outcome<AgentsObservation> run(
+      Supplier<EmbodiedAgent> embodiedAgentSupplier,
+      Engine engine,
+      Consumer<Snapshot> snapshotConsumer) {
+    // create agent
+    EmbodiedAgent embodiedAgent = embodiedAgentSupplier.get();
+    engine.perform(new AddAgent(embodiedAgent));
+    // place agent
+    BoundingBox agentBB = embodiedAgent.boundingBox();
+    engine.perform(
+        new TranslateAgent(
+            embodiedAgent, new Point(terrain.borderW() + initialXGap - agentBB.min().x(), 0)));
+    agentBB = embodiedAgent.boundingBox();
+    double maxY = terrain.maxHeightAt(agentBB.xRange());
+    engine.perform(
+        new TranslateAgent(embodiedAgent, new Point(0, maxY + initialYGap - agentBB.min().y())));
+    // build world around the agent
+    Chunks chunks = new Chunks();
+    updateChunks(engine, embodiedAgent.boundingBox(), chunks);
+    // run for defined time
+    ObservationStore observations = new ObservationStore();
+    while (engine.t() < duration) {
+      Snapshot snapshot = engine.tick();
+      snapshotConsumer.accept(snapshot);
+      observations.add(
+          engine.t(), List.of(embodiedAgent), a -> terrain.heightAt(a.boundingBox().center().x()));
+      updateChunks(engine, embodiedAgent.boundingBox(), chunks);
+    }
+    // return
+    return observations.toOutcome();
+  }
+}
@@ -26,15 +26,14 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -84,6 +83,17 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
         duration, fallInterval, nOfAgents, xSigmaRatio, randomGenerator, terrain, yGapRatio, X_GAP);
   }
 
+  // agents positions are drawn from the engine generator, hence runs are reproducible
+  public FallPiling(
+      double duration,
+      double fallInterval,
+      int nOfAgents,
+      double xSigmaRatio,
+      Terrain terrain,
+      double yGapRatio) {
+    this(duration, fallInterval, nOfAgents, xSigmaRatio, null, terrain, yGapRatio);
+  }
+
   private void placeAgent(Engine engine, EmbodiedAgent agent, List<EmbodiedAgent> agents) {
     BoundingBox agentBB = agent.boundingBox();
     DoubleRange xRange =
@@ -108,7 +118,8 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
             new Point(
                 xRange.min()
                     + xRange.extent() / 2d
-                    + randomGenerator.nextGaussian(0d, xSigmaRatio * agentBB.width())
+                    + Objects.requireNonNullElse(randomGenerator, engine.randomGenerator())
+                        .nextGaussian(0d, xSigmaRatio * agentBB.width())
                     - agentBB.min().x(),
                 baseY - agentBB.min().y())));
   }
@@ -121,7 +132,7 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
     // build world
     engine.perform(new CreateUnmovableBody(terrain.poly()));
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    ObservationStore observations = new ObservationStore();
     List<EmbodiedAgent> agents = new ArrayList<>(nOfAgents);
     while (engine.t() < duration) {
       // check if new agent needed
@@ -134,17 +145,8 @@ public class FallPiling implements Task<Supplier<EmbodiedAgent>, Outcome<AgentsO
       // tick
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
-          engine.t(),
-          new AgentsObservation(
-              agents.stream()
-                  .map(
-                      a ->
-                          new AgentsObservation.Agent(
-                              a.bodyParts().stream().map(Body::poly).toList(),
-                              PolyUtils.maxYAtX(terrain.poly(), a.boundingBox().center().x())))
-                  .toList()));
+      observations.add(engine.t(), agents, a -> terrain.heightAt(a.boundingBox().center().x()));
     }
-    return new Outcome<>(new TreeMap<>(observations));
+    return new Outcome<>(observations.asSortedMap());
   }
 }
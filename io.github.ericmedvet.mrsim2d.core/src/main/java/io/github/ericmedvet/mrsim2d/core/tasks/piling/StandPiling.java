@@ -26,15 +26,14 @@ import io.github.ericmedvet.mrsim2d.core.Snapshot;
 import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
 import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
 import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
-import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
 import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.ObservationStore;
 import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
 import io.github.ericmedvet.mrsim2d.core.tasks.Task;
-import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
@@ -102,22 +101,13 @@ public class StandPiling implements Task<Supplier<EmbodiedAgent>, Outcome<Agents
       agents.add(agent);
     }
     // run for defined time
-    Map<Double, AgentsObservation> observations = new HashMap<>();
+    ObservationStore observations = new ObservationStore();
     while (engine.t() < duration) {
       // tick
       Snapshot snapshot = engine.tick();
       snapshotConsumer.accept(snapshot);
-      observations.put(
-          engine.t(),
-          new AgentsObservation(
-              agents.stream()
-                  .map(
-                      a ->
-                          new AgentsObservation.Agent(
-                              a.bodyParts().stream().map(Body::poly).toList(),
-                              PolyUtils.maxYAtX(terrain.poly(), a.boundingBox().center().x())))
-                  .toList()));
+      observations.add(engine.t(), agents, a -> terrain.heightAt(a.boundingBox().center().x()));
     }
-    return new Outcome<>(new TreeMap<>(observations));
+    return new Outcome<>(observations.asSortedMap());
   }
 }
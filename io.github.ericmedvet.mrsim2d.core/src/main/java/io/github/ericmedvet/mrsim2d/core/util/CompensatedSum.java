@@ -0,0 +1,50 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.util;
+
+// Kahan summation, giving the same result of DoubleStream.sum() on the same sequence of values
+public class CompensatedSum {
+  private double sum;
+  private double compensation;
+  private double simpleSum;
+
+  public void add(double value) {
+    double y = value - compensation;
+    double t = sum + y;
+    compensation = (t - sum) - y;
+    sum = t;
+    simpleSum = simpleSum + value;
+  }
+
+  public double get() {
+    double finalSum = sum - compensation;
+    if (Double.isNaN(finalSum) && Double.isInfinite(simpleSum)) {
+      return simpleSum;
+    }
+    return finalSum;
+  }
+
+  public void reset() {
+    sum = 0d;
+    compensation = 0d;
+    simpleSum = 0d;
+  }
+}
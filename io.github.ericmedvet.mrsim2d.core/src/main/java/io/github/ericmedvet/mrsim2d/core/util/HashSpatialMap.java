@@ -21,69 +21,138 @@ package io.github.ericmedvet.mrsim2d.core.util;
 
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import java.util.*;
+import java.util.function.Consumer;
 
 public class HashSpatialMap<T> implements SpatialMap<T> {
 
   private final double cellSize;
-  private final Map<Key, List<PositionedT<T>>> map;
+  private final Map<Key, Cell<T>> map;
+  // cells used since the last clear, in order of first use, and the ones used before it: the map
+  // contains exactly these cells, the others are pooled
+  private List<Cell<T>> usedCells;
+  private List<Cell<T>> previouslyUsedCells;
+  private final Deque<Cell<T>> pool;
+  private final Key probe;
+  private int generation;
 
   public HashSpatialMap(double cellSize) {
     this.cellSize = cellSize;
-    map = new LinkedHashMap<>();
+    map = new HashMap<>();
+    usedCells = new ArrayList<>();
+    previouslyUsedCells = new ArrayList<>();
+    pool = new ArrayDeque<>();
+    probe = new Key();
   }
 
-  private record Key(int x, int y) {}
+  private static final class Cell<T> {
+    private final Key key = new Key();
+    private final List<Point> ps = new ArrayList<>();
+    private final List<T> ts = new ArrayList<>();
+    private int generation;
+  }
+
+  // mutable, to look up cells without allocating: keys in the map are never modified while there
+  private static final class Key {
+    private int x;
+    private int y;
+
+    private Key set(int x, int y) {
+      this.x = x;
+      this.y = y;
+      return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key key && x == key.x && y == key.y;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * x + y;
+    }
 
-  private record PositionedT<T>(Point p, T t) {}
+    @Override
+    public String toString() {
+      return "(" + x + "," + y + ")";
+    }
+  }
 
   @Override
   public void add(Point p, T t) {
-    Key key = key(p);
-    List<PositionedT<T>> ts = map.computeIfAbsent(key, k -> new ArrayList<>());
-    ts.add(new PositionedT<>(p, t));
+    int x = (int) Math.floor(p.x() / cellSize);
+    int y = (int) Math.floor(p.y() / cellSize);
+    Cell<T> cell = map.get(probe.set(x, y));
+    if (cell == null) {
+      cell = pool.isEmpty() ? new Cell<>() : pool.pop();
+      cell.key.set(x, y);
+      map.put(cell.key, cell);
+    }
+    if (cell.ts.isEmpty()) {
+      cell.generation = generation;
+      usedCells.add(cell);
+    }
+    cell.ps.add(p);
+    cell.ts.add(t);
   }
 
   @Override
   public Collection<T> all() {
-    return map.values().stream()
-        .filter(Objects::nonNull)
-        .flatMap(List::stream)
-        .map(PositionedT::t)
-        .toList();
+    List<T> all = new ArrayList<>();
+    for (Cell<T> cell : usedCells) {
+      all.addAll(cell.ts);
+    }
+    return all;
   }
 
   @Override
   public void clear() {
-    map.clear();
+    // cells not used since the previous clear are removed, the others are kept for reuse
+    for (Cell<T> cell : previouslyUsedCells) {
+      if (cell.generation != generation) {
+        map.remove(cell.key);
+        pool.push(cell);
+      }
+    }
+    previouslyUsedCells.clear();
+    for (Cell<T> cell : usedCells) {
+      cell.ps.clear();
+      cell.ts.clear();
+    }
+    List<Cell<T>> cells = previouslyUsedCells;
+    previouslyUsedCells = usedCells;
+    usedCells = cells;
+    generation = generation + 1;
   }
 
   @Override
   public Collection<T> get(Point p, double range) {
-    return neighborhood(key(p), range).stream()
-        .map(k -> map.getOrDefault(k, List.of()))
-        .flatMap(List::stream)
-        .filter(v -> v.p().distance(p) <= range)
-        .map(PositionedT::t)
-        .toList();
-  }
-
-  private Key key(Point p) {
-    return new Key((int) Math.floor(p.x() / cellSize), (int) Math.floor(p.y() / cellSize));
+    List<T> ts = new ArrayList<>();
+    forEachWithin(p, range, ts::add);
+    return ts;
   }
 
-  private List<Key> neighborhood(Key center, double range) {
+  @Override
+  public void forEachWithin(Point p, double range, Consumer<? super T> consumer) {
     int keyRadius = (int) Math.ceil(range / cellSize);
-    List<Key> keys = new ArrayList<>();
-    for (int x = center.x() - keyRadius; x <= center.x() + keyRadius; x = x + 1) {
-      for (int y = center.y() - keyRadius; y <= center.y() + keyRadius; y = y + 1) {
-        keys.add(new Key(x, y));
+    int cx = (int) Math.floor(p.x() / cellSize);
+    int cy = (int) Math.floor(p.y() / cellSize);
+    for (int x = cx - keyRadius; x <= cx + keyRadius; x = x + 1) {
+      for (int y = cy - keyRadius; y <= cy + keyRadius; y = y + 1) {
+        Cell<T> cell = map.get(probe.set(x, y));
+        if (cell != null) {
+          for (int i = 0; i < cell.ps.size(); i++) {
+            if (cell.ps.get(i).distance(p) <= range) {
+              consumer.accept(cell.ts.get(i));
+            }
+          }
+        }
       }
     }
-    return keys;
   }
 
   @Override
   public String toString() {
-    return "HashSpatialMap{" + "cellSize=" + cellSize + ", map=" + map + '}';
+    return "HashSpatialMap{" + "cellSize=" + cellSize + ", usedCells=" + usedCells.size() + '}';
   }
 }
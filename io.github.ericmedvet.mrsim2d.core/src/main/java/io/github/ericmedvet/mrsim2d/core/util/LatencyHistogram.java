@@ -0,0 +1,101 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import java.util.Arrays;
+
+public class LatencyHistogram {
+
+  // bucket i counts durations d (in ns) such that 2^i <= d < 2^(i+1); bucket 0 also counts d = 0
+  private static final int N_OF_BUCKETS = 40;
+
+  private final long[] buckets;
+  private long count;
+  private long totalNanos;
+  private long maxNanos;
+
+  public LatencyHistogram() {
+    buckets = new long[N_OF_BUCKETS];
+  }
+
+  private LatencyHistogram(long[] buckets, long count, long totalNanos, long maxNanos) {
+    this.buckets = buckets;
+    this.count = count;
+    this.totalNanos = totalNanos;
+    this.maxNanos = maxNanos;
+  }
+
+  private static int bucket(long nanos) {
+    if (nanos <= 0) {
+      return 0;
+    }
+    return Math.min(N_OF_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+  }
+
+  public void add(long nanos) {
+    buckets[bucket(nanos)] += 1;
+    count = count + 1;
+    totalNanos = totalNanos + nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+  }
+
+  public LatencyHistogram copy() {
+    return new LatencyHistogram(Arrays.copyOf(buckets, N_OF_BUCKETS), count, totalNanos, maxNanos);
+  }
+
+  public long count() {
+    return count;
+  }
+
+  public long maxNanos() {
+    return maxNanos;
+  }
+
+  public double meanNanos() {
+    return count == 0 ? 0d : (double) totalNanos / (double) count;
+  }
+
+  // upper bound of the bucket containing the q-quantile, hence at most 2x the true value
+  public long quantileNanos(double q) {
+    if (count == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(q * count);
+    long cumulated = 0;
+    for (int i = 0; i < N_OF_BUCKETS; i++) {
+      cumulated = cumulated + buckets[i];
+      if (cumulated >= threshold && cumulated > 0) {
+        return Math.min(maxNanos, (1L << (i + 1)) - 1);
+      }
+    }
+    return maxNanos;
+  }
+
+  public long totalNanos() {
+    return totalNanos;
+  }
+
+  @Override
+  public String toString() {
+    return "LatencyHistogram{count=%d, mean=%.0fns, p50=%dns, p99=%dns, max=%dns}"
+        .formatted(count, meanNanos(), quantileNanos(0.5), quantileNanos(0.99), maxNanos);
+  }
+}
@@ -0,0 +1,191 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-core
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.core.util;
+
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// cells are keyed by their packed coordinates in an open addressing table; items are kept in flat
+// arrays, chained per cell in insertion order; arrays and table are reused after clear()
+public class PackedSpatialMap<T> implements SpatialMap<T> {
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final int INITIAL_TABLE_BITS = 6;
+  private static final int EMPTY = -1;
+
+  private final double cellSize;
+  // items
+  private double[] xs;
+  private double[] ys;
+  private Object[] ts;
+  private int[] nexts;
+  private int size;
+  // cells
+  private int tableBits;
+  private long[] cellKeys;
+  private int[] cellHeads;
+  private int[] cellTails;
+  private int[] usedCells;
+  private int nOfUsedCells;
+
+  public PackedSpatialMap(double cellSize) {
+    this.cellSize = cellSize;
+    xs = new double[INITIAL_CAPACITY];
+    ys = new double[INITIAL_CAPACITY];
+    ts = new Object[INITIAL_CAPACITY];
+    nexts = new int[INITIAL_CAPACITY];
+    allocateTable(INITIAL_TABLE_BITS);
+  }
+
+  private static long key(int cx, int cy) {
+    return ((long) cx << 32) | (cy & 0xffffffffL);
+  }
+
+  @Override
+  public void add(Point p, T t) {
+    if (size == xs.length) {
+      xs = Arrays.copyOf(xs, 2 * size);
+      ys = Arrays.copyOf(ys, 2 * size);
+      ts = Arrays.copyOf(ts, 2 * size);
+      nexts = Arrays.copyOf(nexts, 2 * size);
+    }
+    xs[size] = p.x();
+    ys[size] = p.y();
+    ts[size] = t;
+    nexts[size] = EMPTY;
+    long key = key(cell(p.x()), cell(p.y()));
+    int slot = slot(key);
+    if (cellHeads[slot] == EMPTY) {
+      cellKeys[slot] = key;
+      cellHeads[slot] = size;
+      usedCells[nOfUsedCells] = slot;
+      nOfUsedCells = nOfUsedCells + 1;
+    } else {
+      nexts[cellTails[slot]] = size;
+    }
+    cellTails[slot] = size;
+    size = size + 1;
+    if (2 * nOfUsedCells > cellKeys.length) {
+      rehash();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Collection<T> all() {
+    List<T> all = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      all.add((T) ts[i]);
+    }
+    return all;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < nOfUsedCells; i++) {
+      cellHeads[usedCells[i]] = EMPTY;
+    }
+    nOfUsedCells = 0;
+    Arrays.fill(ts, 0, size, null);
+    size = 0;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void forEachWithin(Point p, double range, Consumer<? super T> consumer) {
+    int keyRadius = (int) Math.ceil(range / cellSize);
+    int cx = cell(p.x());
+    int cy = cell(p.y());
+    // same visiting order of HashSpatialMap: cells by x, then by y, items by insertion
+    for (int x = cx - keyRadius; x <= cx + keyRadius; x = x + 1) {
+      for (int y = cy - keyRadius; y <= cy + keyRadius; y = y + 1) {
+        for (int i = cellHeads[slot(key(x, y))]; i != EMPTY; i = nexts[i]) {
+          double dx = xs[i] - p.x();
+          double dy = ys[i] - p.y();
+          if (Math.sqrt(dx * dx + dy * dy) <= range) {
+            consumer.accept((T) ts[i]);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public Collection<T> get(Point p, double range) {
+    List<T> within = new ArrayList<>();
+    forEachWithin(p, range, within::add);
+    return within;
+  }
+
+  private void allocateTable(int bits) {
+    tableBits = bits;
+    cellKeys = new long[1 << bits];
+    cellHeads = new int[1 << bits];
+    cellTails = new int[1 << bits];
+    usedCells = new int[1 << bits];
+    Arrays.fill(cellHeads, EMPTY);
+  }
+
+  private int cell(double v) {
+    return (int) Math.floor(v / cellSize);
+  }
+
+  private int hash(long key) {
+    return (int) ((key * 0x9e3779b97f4a7c15L) >>> (64 - tableBits));
+  }
+
+  private void rehash() {
+    long[] oldKeys = cellKeys;
+    int[] oldHeads = cellHeads;
+    int[] oldTails = cellTails;
+    int[] oldUsedCells = usedCells;
+    int oldNOfUsedCells = nOfUsedCells;
+    allocateTable(tableBits + 1);
+    nOfUsedCells = 0;
+    for (int i = 0; i < oldNOfUsedCells; i++) {
+      int oldSlot = oldUsedCells[i];
+      int slot = slot(oldKeys[oldSlot]);
+      cellKeys[slot] = oldKeys[oldSlot];
+      cellHeads[slot] = oldHeads[oldSlot];
+      cellTails[slot] = oldTails[oldSlot];
+      usedCells[nOfUsedCells] = slot;
+      nOfUsedCells = nOfUsedCells + 1;
+    }
+  }
+
+  // slot of the cell with this key, or of the empty slot where it would be
+  private int slot(long key) {
+    int mask = cellKeys.length - 1;
+    int slot = hash(key);
+    while (cellHeads[slot] != EMPTY && cellKeys[slot] != key) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  @Override
+  public String toString() {
+    return "PackedSpatialMap{" + "cellSize=" + cellSize + ", size=" + size + '}';
+  }
+}
@@ -21,8 +21,22 @@ package io.github.ericmedvet.mrsim2d.core.util;
 
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import java.util.Collection;
+import java.util.function.Consumer;
 
 public interface SpatialMap<T> {
+
+  enum Type {
+    HASH,
+    PACKED;
+
+    public <T> SpatialMap<T> create(double cellSize) {
+      return switch (this) {
+        case HASH -> new HashSpatialMap<>(cellSize);
+        case PACKED -> new PackedSpatialMap<>(cellSize);
+      };
+    }
+  }
+
   void add(Point p, T t);
 
   Collection<T> all();
@@ -30,4 +44,9 @@ public interface SpatialMap<T> {
   void clear();
 
   Collection<T> get(Point p, double range);
+
+  // implementations may visit items without allocating
+  default void forEachWithin(Point p, double range, Consumer<? super T> consumer) {
+    get(p, range).forEach(consumer);
+  }
 }
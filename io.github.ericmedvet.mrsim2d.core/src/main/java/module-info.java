@@ -22,6 +22,8 @@ module io.github.ericmedvet.mrsim2d.core {
   requires java.logging;
   requires io.github.ericmedvet.jsdynsym.core;
 
+  uses io.github.ericmedvet.mrsim2d.core.engine.Engine;
+
   exports io.github.ericmedvet.mrsim2d.core;
   exports io.github.ericmedvet.mrsim2d.core.actions;
   exports io.github.ericmedvet.mrsim2d.core.agents.gridvsr;
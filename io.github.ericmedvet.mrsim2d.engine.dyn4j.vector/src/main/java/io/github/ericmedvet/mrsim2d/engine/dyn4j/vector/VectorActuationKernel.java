@@ -0,0 +1,81 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j-vector
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.engine.dyn4j.vector;
+
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.ActuationKernel;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// same operations, in the same order, of the scalar kernel: results are bit-identical
+public class VectorActuationKernel extends ActuationKernel {
+
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  protected void computeMotorSpeeds(double dT) {
+    int i = 0;
+    for (int upper = SPECIES.loopBound(nOfMotors); i < upper; i = i + SPECIES.length()) {
+      DoubleVector error =
+          DoubleVector.fromArray(SPECIES, motorTargets, i)
+              .sub(DoubleVector.fromArray(SPECIES, motorAngles, i));
+      DoubleVector errorSum = DoubleVector.fromArray(SPECIES, motorErrorSums, i).add(error.mul(dT));
+      DoubleVector derivative =
+          error.sub(DoubleVector.fromArray(SPECIES, motorLastErrors, i)).div(dT);
+      errorSum.intoArray(motorErrorSums, i);
+      error.intoArray(motorLastErrors, i);
+      DoubleVector maxSpeed = DoubleVector.fromArray(SPECIES, motorMaxSpeeds, i);
+      DoubleVector speed =
+          DoubleVector.fromArray(SPECIES, motorPs, i)
+              .mul(error)
+              .add(DoubleVector.fromArray(SPECIES, motorIs, i).mul(errorSum))
+              .add(DoubleVector.fromArray(SPECIES, motorDs, i).mul(derivative))
+              .min(maxSpeed)
+              .max(maxSpeed.neg());
+      VectorMask<Double> tolerated =
+          error
+              .abs()
+              .compare(VectorOperators.LT, DoubleVector.fromArray(SPECIES, motorTolerances, i));
+      speed.blend(0d, tolerated).intoArray(motorSpeeds, i);
+    }
+    computeMotorSpeeds(i, dT);
+  }
+
+  @Override
+  protected void computeRestDistances() {
+    int i = 0;
+    for (int upper = SPECIES.loopBound(nOfSprings); i < upper; i = i + SPECIES.length()) {
+      DoubleVector v = DoubleVector.fromArray(SPECIES, springActivations, i);
+      DoubleVector rest = DoubleVector.fromArray(SPECIES, springRests, i);
+      DoubleVector shrunk =
+          rest.sub(rest.sub(DoubleVector.fromArray(SPECIES, springMins, i)).mul(v));
+      DoubleVector expanded =
+          rest.add(DoubleVector.fromArray(SPECIES, springMaxs, i).sub(rest).mul(v.neg()));
+      expanded.blend(shrunk, v.compare(VectorOperators.GE, 0d)).intoArray(springRestDistances, i);
+    }
+    computeRestDistances(i);
+  }
+
+  @Override
+  protected boolean isSupported() {
+    return SPECIES.length() > 1;
+  }
+}
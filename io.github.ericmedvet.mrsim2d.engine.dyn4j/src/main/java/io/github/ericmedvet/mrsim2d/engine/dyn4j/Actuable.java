@@ -19,6 +19,9 @@
  */
 package io.github.ericmedvet.mrsim2d.engine.dyn4j;
 
+// a body whose actuation state is moved to the kernel of the engine, which then actuates it
 public interface Actuable {
-  void actuate(double t, double lastT);
+  void attach(ActuationKernel actuationKernel);
+
+  void detach();
 }
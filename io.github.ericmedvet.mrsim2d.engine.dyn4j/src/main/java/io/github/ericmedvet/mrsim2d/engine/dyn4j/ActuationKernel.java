@@ -0,0 +1,344 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.engine.dyn4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.joint.DistanceJoint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+
+// actuation state of all the springs of voxels and of all the motors of rotational joints, kept in
+// flat arrays and updated at once before being pushed to the dyn4j joints; slots freed by removed
+// springs and motors are reset, reused by later additions, and dropped when at the end
+public abstract class ActuationKernel {
+
+  public static final String VECTOR_PROPERTY = "mrsim2d.actuation.vector";
+  private static final int INITIAL_CAPACITY = 64;
+  private static final Optional<ServiceLoader.Provider<ActuationKernel>> VECTOR_PROVIDER =
+      vectorProvider();
+
+  private final List<DistanceJoint<Body>> springJoints;
+  private final List<RevoluteJoint<Body>> motorJoints;
+  private final TreeMap<Integer, Integer> freeSpringRanges;
+  private final TreeSet<Integer> freeMotorSlots;
+  private boolean[] pendingSprings;
+  private boolean anyPendingSpring;
+
+  protected int nOfSprings;
+  protected double[] springMins;
+  protected double[] springRests;
+  protected double[] springMaxs;
+  protected double[] springActivations;
+  protected double[] springRestDistances;
+
+  protected int nOfMotors;
+  protected double[] motorPs;
+  protected double[] motorIs;
+  protected double[] motorDs;
+  protected double[] motorTolerances;
+  protected double[] motorMaxSpeeds;
+  protected double[] motorAngles;
+  protected double[] motorTargets;
+  protected double[] motorErrorSums;
+  protected double[] motorLastErrors;
+  protected double[] motorSpeeds;
+
+  protected ActuationKernel() {
+    springJoints = new ArrayList<>();
+    motorJoints = new ArrayList<>();
+    freeSpringRanges = new TreeMap<>();
+    freeMotorSlots = new TreeSet<>();
+    pendingSprings = new boolean[INITIAL_CAPACITY];
+    springMins = new double[INITIAL_CAPACITY];
+    springRests = new double[INITIAL_CAPACITY];
+    springMaxs = new double[INITIAL_CAPACITY];
+    springActivations = new double[INITIAL_CAPACITY];
+    springRestDistances = new double[INITIAL_CAPACITY];
+    motorPs = new double[INITIAL_CAPACITY];
+    motorIs = new double[INITIAL_CAPACITY];
+    motorDs = new double[INITIAL_CAPACITY];
+    motorTolerances = new double[INITIAL_CAPACITY];
+    motorMaxSpeeds = new double[INITIAL_CAPACITY];
+    motorAngles = new double[INITIAL_CAPACITY];
+    motorTargets = new double[INITIAL_CAPACITY];
+    motorErrorSums = new double[INITIAL_CAPACITY];
+    motorLastErrors = new double[INITIAL_CAPACITY];
+    motorSpeeds = new double[INITIAL_CAPACITY];
+  }
+
+  // the vector implementation is provided by an optional module and is used only if the incubator
+  // module is available to the jvm
+  public static ActuationKernel create() {
+    return VECTOR_PROVIDER.map(ServiceLoader.Provider::get).orElseGet(ScalarActuationKernel::new);
+  }
+
+  private static double[] grow(double[] values, int n) {
+    return n < values.length ? values : Arrays.copyOf(values, 2 * values.length);
+  }
+
+  private static boolean[] grow(boolean[] values, int n) {
+    return n < values.length ? values : Arrays.copyOf(values, 2 * values.length);
+  }
+
+  private static Optional<ServiceLoader.Provider<ActuationKernel>> vectorProvider() {
+    if (!Boolean.parseBoolean(System.getProperty(VECTOR_PROPERTY, "true"))) {
+      return Optional.empty();
+    }
+    try {
+      return ServiceLoader.load(ActuationKernel.class).stream()
+          .filter(p -> p.get().isSupported())
+          .findFirst();
+    } catch (ServiceConfigurationError | LinkageError e) {
+      return Optional.empty();
+    }
+  }
+
+  protected abstract void computeMotorSpeeds(double dT);
+
+  protected abstract void computeRestDistances();
+
+  // scalar computation from a given slot on, also used for the tail left by vector implementations
+  protected final void computeMotorSpeeds(int from, double dT) {
+    for (int i = from; i < nOfMotors; i++) {
+      double error = motorTargets[i] - motorAngles[i];
+      motorErrorSums[i] = motorErrorSums[i] + error * dT;
+      double derivative = (error - motorLastErrors[i]) / dT;
+      motorLastErrors[i] = error;
+      if (Math.abs(error) < motorTolerances[i]) {
+        motorSpeeds[i] = 0d;
+        continue;
+      }
+      double speed = motorPs[i] * error + motorIs[i] * motorErrorSums[i] + motorDs[i] * derivative;
+      if (speed > motorMaxSpeeds[i]) {
+        speed = motorMaxSpeeds[i];
+      } else if (speed < -motorMaxSpeeds[i]) {
+        speed = -motorMaxSpeeds[i];
+      }
+      motorSpeeds[i] = speed;
+    }
+  }
+
+  protected final void computeRestDistances(int from) {
+    for (int i = from; i < nOfSprings; i++) {
+      double v = springActivations[i];
+      double rest = springRests[i];
+      if (v >= 0) { // shrink
+        springRestDistances[i] = rest - (rest - springMins[i]) * v;
+      } else { // expand
+        springRestDistances[i] = rest + (springMaxs[i] - rest) * -v;
+      }
+    }
+  }
+
+  protected boolean isSupported() {
+    return true;
+  }
+
+  public void actuate(double dT) {
+    applySprings();
+    actuateMotors(dT);
+  }
+
+  public void actuateMotors(double dT) {
+    for (int i = 0; i < nOfMotors; i++) {
+      RevoluteJoint<Body> joint = motorJoints.get(i);
+      if (joint != null) {
+        motorAngles[i] = joint.getJointAngle();
+      }
+    }
+    computeMotorSpeeds(dT);
+    for (int i = 0; i < nOfMotors; i++) {
+      RevoluteJoint<Body> joint = motorJoints.get(i);
+      if (joint != null) {
+        joint.setMotorSpeed(motorSpeeds[i]);
+      }
+    }
+  }
+
+  public void actuateSprings(int from, int n, double activation) {
+    // as for direct actuation, a NaN leaves the springs as they are
+    if (Double.isNaN(activation)) {
+      return;
+    }
+    for (int i = from; i < from + n; i++) {
+      springActivations[i] = activation;
+      pendingSprings[i] = springJoints.get(i) != null;
+    }
+    anyPendingSpring = anyPendingSpring || n > 0;
+  }
+
+  public int addMotor(
+      RevoluteJoint<Body> joint,
+      double p,
+      double i,
+      double d,
+      double tolerance,
+      double maxSpeed,
+      double target,
+      double errorSum,
+      double lastError) {
+    int slot;
+    if (freeMotorSlots.isEmpty()) {
+      slot = nOfMotors;
+      motorPs = grow(motorPs, slot);
+      motorIs = grow(motorIs, slot);
+      motorDs = grow(motorDs, slot);
+      motorTolerances = grow(motorTolerances, slot);
+      motorMaxSpeeds = grow(motorMaxSpeeds, slot);
+      motorAngles = grow(motorAngles, slot);
+      motorTargets = grow(motorTargets, slot);
+      motorErrorSums = grow(motorErrorSums, slot);
+      motorLastErrors = grow(motorLastErrors, slot);
+      motorSpeeds = grow(motorSpeeds, slot);
+      motorJoints.add(joint);
+      nOfMotors = nOfMotors + 1;
+    } else {
+      slot = freeMotorSlots.pollFirst();
+      motorJoints.set(slot, joint);
+    }
+    motorPs[slot] = p;
+    motorIs[slot] = i;
+    motorDs[slot] = d;
+    motorTolerances[slot] = tolerance;
+    motorMaxSpeeds[slot] = maxSpeed;
+    setMotorState(slot, target, errorSum, lastError);
+    return slot;
+  }
+
+  // returns the first of n contiguous slots, reusing a freed range of the same size, if any
+  public int addSprings(int n) {
+    for (Map.Entry<Integer, Integer> entry : freeSpringRanges.entrySet()) {
+      if (entry.getValue() == n) {
+        freeSpringRanges.remove(entry.getKey());
+        return entry.getKey();
+      }
+    }
+    int from = nOfSprings;
+    for (int i = 0; i < n; i++) {
+      pendingSprings = grow(pendingSprings, nOfSprings);
+      springMins = grow(springMins, nOfSprings);
+      springRests = grow(springRests, nOfSprings);
+      springMaxs = grow(springMaxs, nOfSprings);
+      springActivations = grow(springActivations, nOfSprings);
+      springRestDistances = grow(springRestDistances, nOfSprings);
+      springJoints.add(null);
+      nOfSprings = nOfSprings + 1;
+    }
+    return from;
+  }
+
+  public void applySprings() {
+    if (!anyPendingSpring) {
+      return;
+    }
+    computeRestDistances();
+    for (int i = 0; i < nOfSprings; i++) {
+      if (pendingSprings[i]) {
+        springJoints.get(i).setRestDistance(springRestDistances[i]);
+        pendingSprings[i] = false;
+      }
+    }
+    anyPendingSpring = false;
+  }
+
+  // drops the activations not yet pushed to the joints
+  public void clearPendingSprings() {
+    Arrays.fill(pendingSprings, 0, nOfSprings, false);
+    anyPendingSpring = false;
+  }
+
+  public double motorErrorSum(int slot) {
+    return motorErrorSums[slot];
+  }
+
+  public double motorLastError(int slot) {
+    return motorLastErrors[slot];
+  }
+
+  public double motorTarget(int slot) {
+    return motorTargets[slot];
+  }
+
+  public int nOfSprings() {
+    return nOfSprings;
+  }
+
+  public void removeMotor(int slot) {
+    motorJoints.set(slot, null);
+    // a zeroed motor has no error and hence a null speed
+    motorPs[slot] = 0d;
+    motorIs[slot] = 0d;
+    motorDs[slot] = 0d;
+    motorTolerances[slot] = 0d;
+    motorMaxSpeeds[slot] = 0d;
+    motorAngles[slot] = 0d;
+    motorSpeeds[slot] = 0d;
+    setMotorState(slot, 0d, 0d, 0d);
+    freeMotorSlots.add(slot);
+    while (!freeMotorSlots.isEmpty() && freeMotorSlots.last() == nOfMotors - 1) {
+      freeMotorSlots.pollLast();
+      nOfMotors = nOfMotors - 1;
+      motorJoints.remove(nOfMotors);
+    }
+  }
+
+  public void removeSprings(int from, int n) {
+    if (n == 0) {
+      return;
+    }
+    for (int i = from; i < from + n; i++) {
+      springJoints.set(i, null);
+      pendingSprings[i] = false;
+      springActivations[i] = 0d;
+    }
+    freeSpringRanges.put(from, n);
+    while (!freeSpringRanges.isEmpty()
+        && freeSpringRanges.lastKey() + freeSpringRanges.lastEntry().getValue() == nOfSprings) {
+      nOfSprings = freeSpringRanges.pollLastEntry().getKey();
+      springJoints.subList(nOfSprings, springJoints.size()).clear();
+    }
+  }
+
+  public void setMotorState(int slot, double target, double errorSum, double lastError) {
+    motorTargets[slot] = target;
+    motorErrorSums[slot] = errorSum;
+    motorLastErrors[slot] = lastError;
+  }
+
+  public void setSpring(int slot, DistanceJoint<Body> joint, double min, double rest, double max) {
+    springJoints.set(slot, joint);
+    springMins[slot] = min;
+    springRests[slot] = rest;
+    springMaxs[slot] = max;
+    springActivations[slot] = 0d;
+  }
+
+  public void setMotorTarget(int slot, double target) {
+    motorTargets[slot] = target;
+  }
+}
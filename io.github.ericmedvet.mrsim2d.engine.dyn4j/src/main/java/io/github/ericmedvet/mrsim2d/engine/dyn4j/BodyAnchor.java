@@ -68,6 +68,12 @@ public class BodyAnchor implements Anchor {
     return Utils.point(dV);
   }
 
+  // same anchor on another body with the same shape
+  protected BodyAnchor copy(Body otherBody, Anchorable otherAnchorable) {
+    return new BodyAnchor(
+        otherBody, displacement.sum(Utils.point(otherBody.getLocalCenter())), otherAnchorable);
+  }
+
   protected Body getBody() {
     return body;
   }
@@ -0,0 +1,128 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.engine.dyn4j;
+
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.dyn4j.geometry.Convex;
+
+// convex parts of polies, keyed by their vertexes and shared by all the engines of the jvm: parts
+// are never modified once in a fixture, hence they can be shared among bodies; the least recently
+// used polies are evicted beyond the size, which is 0 (no caching) if the property is not positive
+public class DecompositionCache {
+
+  public static final String SIZE_PROPERTY = "mrsim2d.decomposition.cacheSize";
+  private static final int DEFAULT_SIZE = 256;
+  private static final DecompositionCache SHARED =
+      new DecompositionCache(Integer.getInteger(SIZE_PROPERTY, DEFAULT_SIZE));
+
+  private final int size;
+  private final Map<Key, List<Convex>> map;
+  private long hits;
+  private long misses;
+
+  public DecompositionCache(int size) {
+    this.size = size;
+    map =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Key, List<Convex>> eldest) {
+            return size() > DecompositionCache.this.size;
+          }
+        };
+  }
+
+  private record Key(double[] coordinates) {
+    private static Key of(Poly poly) {
+      Point[] vertexes = poly.vertexes();
+      double[] coordinates = new double[vertexes.length * 2];
+      for (int i = 0; i < vertexes.length; i++) {
+        coordinates[2 * i] = vertexes[i].x();
+        coordinates[2 * i + 1] = vertexes[i].y();
+      }
+      return new Key(coordinates);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key key && Arrays.equals(coordinates, key.coordinates);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(coordinates);
+    }
+
+    @Override
+    public String toString() {
+      return "Key[%d vertexes]".formatted(coordinates.length / 2);
+    }
+  }
+
+  public static DecompositionCache shared() {
+    return SHARED;
+  }
+
+  private static List<Convex> decompose(Poly poly) {
+    List<Poly> parts = (poly.vertexes().length > 3) ? Utils.decompose(poly) : List.of(poly);
+    return parts.stream().map(p -> (Convex) Utils.poly(p)).toList();
+  }
+
+  public synchronized void clear() {
+    map.clear();
+  }
+
+  public List<Convex> convexes(Poly poly) {
+    if (size <= 0) {
+      return decompose(poly);
+    }
+    Key key = Key.of(poly);
+    synchronized (this) {
+      List<Convex> convexes = map.get(key);
+      if (convexes != null) {
+        hits = hits + 1;
+        return convexes;
+      }
+      misses = misses + 1;
+    }
+    // decomposed outside the lock: engines decomposing different polies do not wait for each other
+    List<Convex> convexes = decompose(poly);
+    synchronized (this) {
+      List<Convex> previous = map.putIfAbsent(key, convexes);
+      return previous == null ? convexes : previous;
+    }
+  }
+
+  public synchronized long hits() {
+    return hits;
+  }
+
+  public synchronized long misses() {
+    return misses;
+  }
+
+  public synchronized int size() {
+    return map.size();
+  }
+}
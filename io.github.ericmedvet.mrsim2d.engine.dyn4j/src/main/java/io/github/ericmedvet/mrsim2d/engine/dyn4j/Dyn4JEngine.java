@@ -21,20 +21,32 @@
 package io.github.ericmedvet.mrsim2d.engine.dyn4j;
 
 import io.github.ericmedvet.jsdynsym.core.DoubleRange;
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
 import io.github.ericmedvet.mrsim2d.core.Agent;
 import io.github.ericmedvet.mrsim2d.core.actions.*;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
 import io.github.ericmedvet.mrsim2d.core.bodies.Anchorable;
 import io.github.ericmedvet.mrsim2d.core.bodies.Body;
 import io.github.ericmedvet.mrsim2d.core.engine.AbstractEngine;
-import io.github.ericmedvet.mrsim2d.core.engine.IllegalActionException;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
+import io.github.ericmedvet.mrsim2d.core.engine.TimeStepping;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.util.PolyUtils;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
-import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.ContinuousDetectionMode;
 import org.dyn4j.dynamics.Settings;
 import org.dyn4j.dynamics.joint.DistanceJoint;
@@ -43,42 +55,46 @@ import org.dyn4j.dynamics.joint.WeldJoint;
 import org.dyn4j.geometry.Ray;
 import org.dyn4j.geometry.Vector2;
 import org.dyn4j.world.DetectFilter;
-import org.dyn4j.world.World;
-import org.dyn4j.world.result.RaycastResult;
 
 public class Dyn4JEngine extends AbstractEngine {
 
-  private static final Configuration DEFAULT_CONFIGURATION =
-      new Configuration(
-          getDefaultSettings(),
-          1,
-          0.5,
-          0.1,
-          0.1,
-          1,
-          0.5,
-          1,
-          0.5,
-          0.1,
-          0.1,
-          0.35,
-          EnumSet.allOf(Voxel.SpringScaffolding.class),
-          8d,
-          0.3d,
-          0.5d,
-          10,
-          0.1);
   private final Configuration configuration;
-  private final World<org.dyn4j.dynamics.Body> world;
+  private final PartitionedWorld world;
+  private final ActuationKernel actuationKernel;
+  private final Map<Body, Action<?>> creations;
+  private final List<List<Body>> agentsBodies;
+  private final List<List<Body>> adoptableAgentsBodies;
+  private List<Body> creatingBodies;
+  private Deque<Body> adoptingBodies;
+  private long geometryVersion;
+  private int velocitySolverIterations;
+  private int positionSolverIterations;
 
-  public Dyn4JEngine(Configuration configuration) {
+  public Dyn4JEngine(
+      Configuration configuration, AbstractEngine.Configuration engineConfiguration) {
+    super(engineConfiguration);
     this.configuration = configuration;
-    world = new World<>();
-    world.setSettings(configuration.innerSettings());
+    world =
+        new PartitionedWorld(
+            configuration.innerSettings(),
+            configuration.autoPartitioning(),
+            configuration.partitionMargin());
+    actuationKernel = ActuationKernel.create();
+    creations = new IdentityHashMap<>();
+    agentsBodies = new ArrayList<>();
+    adoptableAgentsBodies = new ArrayList<>();
+    velocitySolverIterations =
+        configuration.innerSettings().getVelocityConstraintSolverIterations();
+    positionSolverIterations =
+        configuration.innerSettings().getPositionConstraintSolverIterations();
+  }
+
+  public Dyn4JEngine(Configuration configuration) {
+    this(configuration, AbstractEngine.DEFAULT_CONFIGURATION);
   }
 
   public Dyn4JEngine() {
-    this(DEFAULT_CONFIGURATION);
+    this(defaultConfiguration());
   }
 
   public record Configuration(
@@ -99,7 +115,87 @@ public class Dyn4JEngine extends AbstractEngine {
       double softLinkSpringD,
       double softLinkRestDistanceRatio,
       double attractionMaxMagnitude,
-      double anchorSideDistance) {}
+      double anchorSideDistance,
+      boolean autoPartitioning,
+      double partitionMargin) {
+    public Configuration(
+        Settings innerSettings,
+        double rigidBodyFriction,
+        double rigidBodyRestitution,
+        double rigidBodyLinearDamping,
+        double rigidBodyAngularDamping,
+        double unmovableBodyFriction,
+        double unmovableBodyRestitution,
+        double voxelFriction,
+        double voxelRestitution,
+        double voxelLinearDamping,
+        double voxelAngularDamping,
+        double voxelVertexMassSideLengthRatio,
+        EnumSet<Voxel.SpringScaffolding> voxelSpringScaffoldings,
+        double softLinkSpringF,
+        double softLinkSpringD,
+        double softLinkRestDistanceRatio,
+        double attractionMaxMagnitude,
+        double anchorSideDistance) {
+      this(
+          innerSettings,
+          rigidBodyFriction,
+          rigidBodyRestitution,
+          rigidBodyLinearDamping,
+          rigidBodyAngularDamping,
+          unmovableBodyFriction,
+          unmovableBodyRestitution,
+          voxelFriction,
+          voxelRestitution,
+          voxelLinearDamping,
+          voxelAngularDamping,
+          voxelVertexMassSideLengthRatio,
+          voxelSpringScaffoldings,
+          softLinkSpringF,
+          softLinkSpringD,
+          softLinkRestDistanceRatio,
+          attractionMaxMagnitude,
+          anchorSideDistance,
+          false,
+          0.5d);
+    }
+  }
+
+  // links are identified by body and anchor indexes, regardless of their direction
+  private record LinkKey(int body1, int anchor1, int body2, int anchor2, Anchor.Link.Type type) {
+    private static LinkKey of(
+        int srcBody, int srcAnchor, int dstBody, int dstAnchor, Anchor.Link.Type type) {
+      if (srcBody < dstBody || (srcBody == dstBody && srcAnchor <= dstAnchor)) {
+        return new LinkKey(srcBody, srcAnchor, dstBody, dstAnchor, type);
+      }
+      return new LinkKey(dstBody, dstAnchor, srcBody, srcAnchor, type);
+    }
+  }
+
+  private static Configuration defaultConfiguration() {
+    // built at each invocation, since dyn4j settings are mutable and must not be shared by engines
+    return new Configuration(
+        getDefaultSettings(),
+        1,
+        0.5,
+        0.1,
+        0.1,
+        1,
+        0.5,
+        1,
+        0.5,
+        0.1,
+        0.1,
+        0.35,
+        EnumSet.allOf(Voxel.SpringScaffolding.class),
+        8d,
+        0.3d,
+        0.5d,
+        10,
+        0.1,
+        false,
+        0.5d);
+  }
 
   private static Settings getDefaultSettings() {
     Settings settings = new Settings();
@@ -109,8 +205,65 @@ public class Dyn4JEngine extends AbstractEngine {
     return settings;
   }
 
-  private RotationalJoint actuateRotationalJoint(ActuateRotationalJoint action, Agent agent)
-      throws IllegalActionException {
+  private static Class<?> createdType(Action<?> action) {
+    if (action instanceof CreateVoxel) {
+      return Voxel.class;
+    }
+    if (action instanceof CreateRigidBody) {
+      return RigidBody.class;
+    }
+    if (action instanceof CreateRotationalJoint) {
+      return RotationalJoint.class;
+    }
+    if (action instanceof CreateUnmovableBody) {
+      return UnmovableBody.class;
+    }
+    return null;
+  }
+
+  private <B extends MultipartBody & Body> B add(B body, Action<?> creation) {
+    world.addBody(body);
+    bodies.add(body);
+    creations.put(body, creation);
+    if (body instanceof Actuable actuable) {
+      actuable.attach(actuationKernel);
+    }
+    if (creatingBodies != null) {
+      creatingBodies.add(body);
+    }
+    return body;
+  }
+
+  @Override
+  protected Agent addAgent(AddAgent action, Agent agent) throws ActionException {
+    int index = agents.size();
+    if (index < adoptableAgentsBodies.size()) {
+      // the agent is assembled on the bodies copied from the parent engine
+      adoptingBodies = new ArrayDeque<>(adoptableAgentsBodies.get(index));
+      try {
+        super.addAgent(action, agent);
+        if (!adoptingBodies.isEmpty()) {
+          throw new IllegalStateException(
+              "Agent did not adopt %d bodies: it does not match the one of the parent engine"
+                  .formatted(adoptingBodies.size()));
+        }
+      } finally {
+        adoptingBodies = null;
+      }
+      agentsBodies.add(adoptableAgentsBodies.get(index));
+      return action.agent();
+    }
+    creatingBodies = new ArrayList<>();
+    try {
+      super.addAgent(action, agent);
+      agentsBodies.add(creatingBodies);
+    } finally {
+      creatingBodies = null;
+    }
+    return action.agent();
+  }
+
+  private RotationalJoint actuateRotationalJoint(ActuateRotationalJoint action, Agent agent) {
     if (action.body() instanceof RotationalJoint rotationalJoint) {
       rotationalJoint.setJointTargetAngle(
           rotationalJoint
@@ -118,24 +271,84 @@ public class Dyn4JEngine extends AbstractEngine {
               .denormalize(action.range().normalize(action.value())));
       return rotationalJoint;
     }
-    throw new IllegalActionException(
-        action,
-        String.format("Unsupported body type %s", action.body().getClass().getSimpleName()));
+    return illegalAction(
+        action, "Unsupported body type %s", action.body().getClass().getSimpleName());
   }
 
-  private Voxel actuateVoxel(ActuateVoxel action, Agent agent) throws IllegalActionException {
+  private List<io.github.ericmedvet.mrsim2d.core.bodies.RotationalJoint> actuateRotationalJoints(
+      ActuateRotationalJoints action, Agent agent) {
+    List<io.github.ericmedvet.mrsim2d.core.bodies.RotationalJoint> bodies = action.bodies();
+    double[] values = action.values();
+    for (int i = 0; i < values.length; i = i + 1) {
+      if (!(bodies.get(i) instanceof RotationalJoint)) {
+        return illegalAction(
+            action, "Unsupported body type %s", bodies.get(i).getClass().getSimpleName());
+      }
+    }
+    for (int i = 0; i < values.length; i = i + 1) {
+      RotationalJoint rotationalJoint = (RotationalJoint) bodies.get(i);
+      rotationalJoint.setJointTargetAngle(
+          rotationalJoint.jointActiveAngleRange().denormalize(action.range().normalize(values[i])));
+    }
+    return bodies;
+  }
+
+  private Voxel actuateVoxel(ActuateVoxel action, Agent agent) {
     if (action.body() instanceof Voxel voxel) {
       voxel.actuate(action.values());
       return voxel;
     }
-    throw new IllegalActionException(
-        action,
-        String.format("Unsupported voxel type %s", action.body().getClass().getSimpleName()));
+    return illegalAction(
+        action, "Unsupported voxel type %s", action.body().getClass().getSimpleName());
+  }
+
+  private List<io.github.ericmedvet.mrsim2d.core.bodies.Voxel> actuateVoxels(
+      ActuateVoxels action, Agent agent) {
+    List<io.github.ericmedvet.mrsim2d.core.bodies.Voxel> bodies = action.bodies();
+    double[] values = action.values();
+    for (int i = 0; i < bodies.size(); i = i + 1) {
+      if (!(bodies.get(i) instanceof Voxel)) {
+        return illegalAction(
+            action, "Unsupported voxel type %s", bodies.get(i).getClass().getSimpleName());
+      }
+    }
+    int c = 0;
+    for (int i = 0; i < bodies.size(); i = i + 1) {
+      ((Voxel) bodies.get(i)).actuate(values[c], values[c + 1], values[c + 2], values[c + 3]);
+      c = c + ActuateVoxels.N_OF_SIDES;
+    }
+    return bodies;
+  }
+
+  @Override
+  protected int partition(Body body) {
+    if (body instanceof UnmovableBody) {
+      return -1;
+    }
+    if (body instanceof MultipartBody multipartBody) {
+      return world.partition(multipartBody);
+    }
+    return 0;
+  }
+
+  private List<Body> assignToPartition(AssignToPartition action, Agent agent) {
+    if (action.partition() < 0) {
+      return illegalAction(action, "Negative partition %d", action.partition());
+    }
+    for (Body body : action.bodies()) {
+      if (body instanceof MultipartBody multipartBody) {
+        world.assign(multipartBody, action.partition());
+      }
+    }
+    return action.bodies();
   }
 
-  private Double attractAnchor(AttractAnchor action, Agent agent) throws IllegalActionException {
+  private Double attractAnchor(AttractAnchor action, Agent agent) {
     if (action.source().anchorable() == action.destination().anchorable()) {
-      throw new IllegalActionException(action, "Cannot attract an anchor of the same body");
+      return illegalAction(action, "Cannot attract an anchor of the same body");
+    }
+    if (!samePartition(action.source().anchorable(), action.destination().anchorable())) {
+      return illegalAction(action, "Cannot attract an anchor of a body in another partition");
     }
     if (action.source().point().distance(action.destination().point())
         < super.configuration().attractionRange()) {
@@ -153,20 +366,23 @@ public class Dyn4JEngine extends AbstractEngine {
     } else {
       return null;
     }
-    throw new IllegalActionException(
+    return illegalAction(
         action,
-        String.format(
-            "Unsupported anchor types: src=%s, dst=%s ",
-            action.source().getClass().getSimpleName(),
-            action.destination().getClass().getSimpleName()));
+        "Unsupported anchor types: src=%s, dst=%s ",
+        action.source().getClass().getSimpleName(),
+        action.destination().getClass().getSimpleName());
   }
 
-  private Anchor.Link createLink(CreateLink action, Agent agent) throws IllegalActionException {
+  private Anchor.Link createLink(CreateLink action, Agent agent) {
     if (action.source().links().stream()
         .anyMatch(l -> l.destination().anchorable().equals(action.destination().anchorable()))) {
       // this anchor is already attached to dst anchorable: ignore
       return null;
     }
+    if (!samePartition(action.source().anchorable(), action.destination().anchorable())) {
+      // a link would merge the islands of the two partitions
+      return illegalAction(action, "Cannot link a body in another partition");
+    }
     if (action.source() instanceof BodyAnchor src) {
       if (action.destination() instanceof BodyAnchor dst) {
         Joint<org.dyn4j.dynamics.Body> joint;
@@ -187,22 +403,20 @@ public class Dyn4JEngine extends AbstractEngine {
           springJoint.setDampingRatio(configuration.softLinkSpringD);
           joint = springJoint;
         } else {
-          throw new IllegalActionException(
-              action, String.format("Unsupported link type: %s", action.type()));
+          return illegalAction(action, "Unsupported link type: %s", action.type());
         }
-        world.addJoint(joint);
+        world.addLink(joint);
         Anchor.Link link = new Anchor.Link(src, dst, action.type());
         src.getJointMap().put(link, joint);
         dst.getJointMap().put(link.reversed(), joint);
         return new Anchor.Link(src, dst, action.type());
       }
     }
-    throw new IllegalActionException(
+    return illegalAction(
         action,
-        String.format(
-            "Unsupported anchor types: src=%s, dst=%s ",
-            action.source().getClass().getSimpleName(),
-            action.destination().getClass().getSimpleName()));
+        "Unsupported anchor types: src=%s, dst=%s ",
+        action.source().getClass().getSimpleName(),
+        action.destination().getClass().getSimpleName());
   }
 
   private RigidBody createRigidBody(CreateRigidBody action, Agent agent) {
@@ -215,10 +429,9 @@ public class Dyn4JEngine extends AbstractEngine {
             configuration.rigidBodyRestitution,
             configuration.rigidBodyLinearDamping,
             configuration.rigidBodyAngularDamping,
-            configuration.anchorSideDistance);
-    rigidBody.getBodies().forEach(world::addBody);
-    bodies.add(rigidBody);
-    return rigidBody;
+            configuration.anchorSideDistance,
+            this::geometryVersion);
+    return add(rigidBody, action);
   }
 
   private RotationalJoint createRotationalJoint(CreateRotationalJoint action, Agent agent) {
@@ -233,11 +446,9 @@ public class Dyn4JEngine extends AbstractEngine {
             configuration.rigidBodyRestitution,
             configuration.rigidBodyLinearDamping,
             configuration.rigidBodyAngularDamping,
-            configuration.anchorSideDistance);
-    rotationalJoint.getBodies().forEach(world::addBody);
-    rotationalJoint.getJoints().forEach(world::addJoint);
-    bodies.add(rotationalJoint);
-    return rotationalJoint;
+            configuration.anchorSideDistance,
+            this::geometryVersion);
+    return add(rotationalJoint, action);
   }
 
   private UnmovableBody createUnmovableBody(CreateUnmovableBody action, Agent agent) {
@@ -248,9 +459,7 @@ public class Dyn4JEngine extends AbstractEngine {
             configuration.unmovableBodyFriction,
             configuration.unmovableBodyRestitution,
             configuration.anchorSideDistance);
-    unmovableBody.getBodies().forEach(world::addBody);
-    bodies.add(unmovableBody);
-    return unmovableBody;
+    return add(unmovableBody, action);
   }
 
   private Voxel createVoxel(CreateVoxel action, Agent agent) {
@@ -265,18 +474,15 @@ public class Dyn4JEngine extends AbstractEngine {
             configuration.voxelAngularDamping,
             configuration.voxelVertexMassSideLengthRatio,
             action.material().areaRatioRange(),
-            configuration.voxelSpringScaffoldings);
-    voxel.getBodies().forEach(world::addBody);
-    voxel.getJoints().forEach(world::addJoint);
-    bodies.add(voxel);
-    return voxel;
+            configuration.voxelSpringScaffoldings,
+            this::geometryVersion);
+    return add(voxel, action);
   }
 
-  private Collection<Body> findInContactBodies(FindInContactBodies action, Agent agent)
-      throws IllegalActionException {
+  private Collection<Body> findInContactBodies(FindInContactBodies action, Agent agent) {
     if (action.body() instanceof MultipartBody multipartBody) {
       return multipartBody.getBodies().stream()
-          .map(b -> world.getInContactBodies(b, false))
+          .map(world::getInContactBodies)
           .flatMap(Collection::stream)
           .filter(
               b ->
@@ -286,9 +492,90 @@ public class Dyn4JEngine extends AbstractEngine {
           .map(b -> (Body) b.getUserData())
           .collect(Collectors.toList());
     }
-    throw new IllegalActionException(
-        action,
-        String.format("Unsupported body type %s", action.body().getClass().getSimpleName()));
+    return illegalAction(
+        action, "Unsupported body type %s", action.body().getClass().getSimpleName());
+  }
+
+  private static int identityIndexOf(List<?> list, Object o) {
+    for (int i = 0; i < list.size(); i++) {
+      if (list.get(i) == o) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private Map<LinkKey, Anchor.Link> currentLinks() {
+    Map<LinkKey, Anchor.Link> links = new LinkedHashMap<>();
+    for (int i = 0; i < bodies.size(); i++) {
+      if (bodies.get(i) instanceof Anchorable anchorable) {
+        List<Anchor> anchors = anchorable.anchors();
+        for (int j = 0; j < anchors.size(); j++) {
+          for (Anchor.Link link : anchors.get(j).links()) {
+            int dstBody = identityIndexOf(bodies, link.destination().anchorable());
+            int dstAnchor =
+                identityIndexOf(link.destination().anchorable().anchors(), link.destination());
+            links.putIfAbsent(LinkKey.of(i, j, dstBody, dstAnchor, link.type()), link);
+          }
+        }
+      }
+    }
+    return links;
+  }
+
+  private Anchor anchor(int bodyIndex, int anchorIndex) {
+    return ((Anchorable) bodies.get(bodyIndex)).anchors().get(anchorIndex);
+  }
+
+  // copies the state of this engine, sharing the terrain shapes; agents are not copied: the i-th
+  // agent added to the fork is assembled on the copies of the bodies of the i-th agent of this one
+  public Dyn4JEngine fork() {
+    Dyn4JEngine fork = new Dyn4JEngine(configuration, super.configuration());
+    Map<Body, Body> copies = new IdentityHashMap<>();
+    for (Body body : bodies) {
+      Body copy;
+      if (body instanceof UnmovableBody unmovableBody) {
+        copy = fork.add(new UnmovableBody(unmovableBody), creations.get(body));
+      } else {
+        copy =
+            (Body)
+                fork.perform(creations.get(body))
+                    .outcome()
+                    .orElseThrow(
+                        () ->
+                            new IllegalStateException(
+                                "Cannot copy %s".formatted(body.getClass().getSimpleName())));
+      }
+      if (body instanceof MultipartBody multipartBody && copy instanceof MultipartBody copyBody) {
+        fork.world.assign(copyBody, world.partition(multipartBody));
+      }
+      copies.put(body, copy);
+    }
+    fork.restore(checkpoint());
+    agentsBodies.forEach(
+        l ->
+            fork.adoptableAgentsBodies.add(
+                l.stream().filter(copies::containsKey).map(copies::get).toList()));
+    fork.setSnapshotPolicy(snapshotPolicy());
+    fork.setTimeStepping(timeStepping());
+    return fork;
+  }
+
+  // doubles the iterations when rigid joints drift apart, then slowly gives them back
+  private static int adaptedSolverIterations(
+      TimeStepping timeStepping, double error, int iterations) {
+    if (error > timeStepping.maxConstraintError()) {
+      iterations = iterations * 2;
+    } else if (error < timeStepping.maxConstraintError() / 2d) {
+      iterations = iterations - 1;
+    }
+    return Math.max(
+        timeStepping.minSolverIterations(),
+        Math.min(timeStepping.maxSolverIterations(), iterations));
+  }
+
+  private long geometryVersion() {
+    return geometryVersion;
   }
 
   @Override
@@ -298,18 +585,200 @@ public class Dyn4JEngine extends AbstractEngine {
 
   @Override
   protected double innerTick() {
-    // control rotational joint
-    bodies.forEach(
-        b -> {
-          if (b instanceof Actuable actuable) {
-            actuable.actuate(t(), t() - configuration.innerSettings().getStepFrequency());
-          }
-        });
+    // push spring actuations and control rotational joints
+    actuationKernel.actuate(configuration.innerSettings().getStepFrequency());
     // tick
-    world.step(1);
+    world.step();
+    geometryVersion = geometryVersion + 1;
+    // velocity and position iterations are adapted independently, and both brought back to the
+    // configured ones with fixed time stepping
+    int newVelocitySolverIterations;
+    int newPositionSolverIterations;
+    if (timeStepping().isAdaptive()) {
+      double error = world.maxJointError();
+      newVelocitySolverIterations =
+          adaptedSolverIterations(timeStepping(), error, velocitySolverIterations);
+      newPositionSolverIterations =
+          adaptedSolverIterations(timeStepping(), error, positionSolverIterations);
+    } else {
+      newVelocitySolverIterations =
+          configuration.innerSettings().getVelocityConstraintSolverIterations();
+      newPositionSolverIterations =
+          configuration.innerSettings().getPositionConstraintSolverIterations();
+    }
+    if (newVelocitySolverIterations != velocitySolverIterations
+        || newPositionSolverIterations != positionSolverIterations) {
+      velocitySolverIterations = newVelocitySolverIterations;
+      positionSolverIterations = newPositionSolverIterations;
+      world.setSolverIterations(velocitySolverIterations, positionSolverIterations);
+    }
     return t() + configuration.innerSettings().getStepFrequency();
   }
 
+  @SuppressWarnings("unchecked")
+  @Override
+  public <A extends Action<O>, O> ActionOutcome<A, O> perform(A action, Agent agent) {
+    if (adoptingBodies == null) {
+      return super.perform(action, agent);
+    }
+    // bodies are already there, placed and linked: creations are served, other actions ignored
+    Class<?> type = createdType(action);
+    if (type == null) {
+      return new ActionOutcome<>(agent, action, Optional.empty());
+    }
+    Body body = adoptingBodies.poll();
+    if (body == null || !type.isInstance(body)) {
+      throw new IllegalStateException(
+          "Cannot adopt a %s for %s: agent does not match the one of the parent engine"
+              .formatted(type.getSimpleName(), action));
+    }
+    return new ActionOutcome<>(agent, action, Optional.of((O) body));
+  }
+
+  @Override
+  protected Runnable readState(DataInput in) throws IOException {
+    Runnable engineRestorer = super.readState(in);
+    int stateVelocitySolverIterations = in.readInt();
+    int statePositionSolverIterations = in.readInt();
+    // bodies
+    int nOfBodies = in.readInt();
+    if (nOfBodies != bodies.size()) {
+      throw new IllegalArgumentException(
+          "Checkpoint has %d bodies, engine has %d".formatted(nOfBodies, bodies.size()));
+    }
+    List<Runnable> bodyRestorers = new ArrayList<>();
+    for (Body body : bodies) {
+      String type = in.readUTF();
+      if (!type.equals(body.getClass().getSimpleName())) {
+        throw new IllegalArgumentException(
+            "Checkpoint has a %s where engine has a %s"
+                .formatted(type, body.getClass().getSimpleName()));
+      }
+      if (body instanceof MultipartBody multipartBody) {
+        Runnable partsRestorer = multipartBody.readState(in);
+        if (body instanceof UnmovableBody) {
+          bodyRestorers.add(
+              () -> {
+                partsRestorer.run();
+                // replicas follow the bodies in the same order, island by island
+                List<org.dyn4j.dynamics.Body> parts = new ArrayList<>(multipartBody.getBodies());
+                int[] counter = new int[1];
+                world.forEachReplica(
+                    multipartBody,
+                    b -> {
+                      b.setTransform(parts.get(counter[0] % parts.size()).getTransform());
+                      counter[0] = counter[0] + 1;
+                    });
+              });
+        } else {
+          bodyRestorers.add(partsRestorer);
+        }
+      }
+    }
+    // links
+    int nOfLinks = in.readInt();
+    Map<LinkKey, Double> links = new LinkedHashMap<>();
+    for (int i = 0; i < nOfLinks; i++) {
+      int body1 = in.readInt();
+      int anchor1 = in.readInt();
+      int body2 = in.readInt();
+      int anchor2 = in.readInt();
+      int typeIndex = in.readByte();
+      if (!hasAnchor(body1, anchor1)
+          || !hasAnchor(body2, anchor2)
+          || typeIndex < 0
+          || typeIndex >= Anchor.Link.Type.values().length) {
+        throw new IllegalArgumentException(
+            "Checkpoint has an invalid link %d.%d-%d.%d of type %d"
+                .formatted(body1, anchor1, body2, anchor2, typeIndex));
+      }
+      links.put(
+          new LinkKey(body1, anchor1, body2, anchor2, Anchor.Link.Type.values()[typeIndex]),
+          in.readDouble());
+    }
+    return () -> {
+      engineRestorer.run();
+      // actuations performed after the checkpoint are dropped
+      actuationKernel.clearPendingSprings();
+      velocitySolverIterations = stateVelocitySolverIterations;
+      positionSolverIterations = statePositionSolverIterations;
+      world.setSolverIterations(velocitySolverIterations, positionSolverIterations);
+      bodyRestorers.forEach(Runnable::run);
+      world.invalidate();
+      geometryVersion = geometryVersion + 1;
+      restoreLinks(links);
+    };
+  }
+
+  private boolean hasAnchor(int bodyIndex, int anchorIndex) {
+    return bodyIndex >= 0
+        && bodyIndex < bodies.size()
+        && bodies.get(bodyIndex) instanceof Anchorable anchorable
+        && anchorIndex >= 0
+        && anchorIndex < anchorable.anchors().size();
+  }
+
+  // links created after the checkpoint are removed, the removed ones are recreated
+  private void restoreLinks(Map<LinkKey, Double> links) {
+    Map<LinkKey, Anchor.Link> currentLinks = currentLinks();
+    for (Map.Entry<LinkKey, Anchor.Link> entry : currentLinks.entrySet()) {
+      if (!links.containsKey(entry.getKey())) {
+        removeLink(new RemoveLink(entry.getValue()), null);
+      }
+    }
+    for (Map.Entry<LinkKey, Double> entry : links.entrySet()) {
+      LinkKey key = entry.getKey();
+      Anchor.Link link = currentLinks.get(key);
+      if (link == null) {
+        link =
+            createLink(
+                new CreateLink(
+                    anchor(key.body1, key.anchor1), anchor(key.body2, key.anchor2), key.type),
+                null);
+      }
+      if (link != null
+          && link.source() instanceof BodyAnchor src
+          && src.getJointMap().get(link) instanceof DistanceJoint<org.dyn4j.dynamics.Body> joint) {
+        joint.setRestDistance(entry.getValue());
+      }
+    }
+  }
+
+  @Override
+  protected void writeState(DataOutput out) throws IOException {
+    // pending actuations are applied, as they would be at the next tick
+    actuationKernel.applySprings();
+    super.writeState(out);
+    out.writeInt(velocitySolverIterations);
+    out.writeInt(positionSolverIterations);
+    // bodies
+    out.writeInt(bodies.size());
+    for (Body body : bodies) {
+      out.writeUTF(body.getClass().getSimpleName());
+      if (body instanceof MultipartBody multipartBody) {
+        multipartBody.writeState(out);
+      }
+    }
+    // links
+    Map<LinkKey, Anchor.Link> links = currentLinks();
+    out.writeInt(links.size());
+    for (Map.Entry<LinkKey, Anchor.Link> entry : links.entrySet()) {
+      LinkKey key = entry.getKey();
+      out.writeInt(key.body1);
+      out.writeInt(key.anchor1);
+      out.writeInt(key.body2);
+      out.writeInt(key.anchor2);
+      out.writeByte(key.type.ordinal());
+      if (entry.getValue().source() instanceof BodyAnchor src
+          && src.getJointMap().get(entry.getValue())
+              instanceof DistanceJoint<org.dyn4j.dynamics.Body> joint) {
+        out.writeDouble(joint.getRestDistance());
+      } else {
+        out.writeDouble(Double.NaN);
+      }
+    }
+  }
+
   @Override
   protected void registerActionSolvers() {
     registerActionSolver(CreateRigidBody.class, this::createRigidBody);
@@ -322,82 +791,88 @@ public class Dyn4JEngine extends AbstractEngine {
     registerActionSolver(RemoveLink.class, this::removeLink);
     registerActionSolver(RemoveBody.class, this::removeBody);
     registerActionSolver(ActuateVoxel.class, this::actuateVoxel);
+    registerActionSolver(ActuateVoxels.class, this::actuateVoxels);
     registerActionSolver(ActuateRotationalJoint.class, this::actuateRotationalJoint);
+    registerActionSolver(ActuateRotationalJoints.class, this::actuateRotationalJoints);
     registerActionSolver(AttractAnchor.class, this::attractAnchor);
+    registerActionSolver(AssignToPartition.class, this::assignToPartition);
     registerActionSolver(SenseDistanceToBody.class, this::senseDistanceToBody);
     registerActionSolver(FindInContactBodies.class, this::findInContactBodies);
     super.registerActionSolvers();
   }
 
-  private Body removeBody(RemoveBody action, Agent agent) throws IllegalActionException {
+  private Body removeBody(RemoveBody action, Agent agent) {
     // detach
     if (action.body() instanceof Anchorable anchorable) {
       perform(new DetachAllAnchorsFromAnchorable(anchorable), agent);
     }
     // remove
     if (action.body() instanceof MultipartBody multipartBody) {
-      multipartBody.getJoints().forEach(world::removeJoint);
-      multipartBody.getBodies().forEach(world::removeBody);
+      world.removeBody(multipartBody);
       bodies.remove(action.body());
+      creations.remove(action.body());
+      if (action.body() instanceof Actuable actuable) {
+        actuable.detach();
+      }
       return action.body();
     }
-    throw new IllegalActionException(
-        action,
-        String.format("Unsupported body type %s", action.body().getClass().getSimpleName()));
+    return illegalAction(
+        action, "Unsupported body type %s", action.body().getClass().getSimpleName());
   }
 
-  private Anchor.Link removeLink(RemoveLink action, Agent agent) throws IllegalActionException {
+  private Anchor.Link removeLink(RemoveLink action, Agent agent) {
     if (action.link().source() instanceof BodyAnchor srcAnchor) {
       if (action.link().destination() instanceof BodyAnchor dstAnchor) {
         // remove joint from world
-        world.removeJoint(srcAnchor.getJointMap().get(action.link()));
+        world.removeLink(srcAnchor.getJointMap().get(action.link()));
         // remove link from maps
         srcAnchor.getJointMap().remove(action.link());
         dstAnchor.getJointMap().remove(action.link().reversed());
         return action.link();
       }
     }
-    throw new IllegalActionException(
+    return illegalAction(
         action,
-        String.format(
-            "Unsupported anchor types: src=%s, dst=%s ",
-            action.link().source().getClass().getSimpleName(),
-            action.link().destination().getClass().getSimpleName()));
+        "Unsupported anchor types: src=%s, dst=%s ",
+        action.link().source().getClass().getSimpleName(),
+        action.link().destination().getClass().getSimpleName());
   }
 
-  private Body rotateBody(RotateBody action, Agent agent) throws IllegalActionException {
+  private Body rotateBody(RotateBody action, Agent agent) {
     if (action.body() instanceof MultipartBody multipartBody) {
       multipartBody
           .getBodies()
           .forEach(b -> b.rotate(action.angle(), action.point().x(), action.point().y()));
+      world.forEachReplica(
+          multipartBody, b -> b.rotate(action.angle(), action.point().x(), action.point().y()));
+      world.invalidate();
+      geometryVersion = geometryVersion + 1;
       return action.body();
     }
-    throw new IllegalActionException(
-        action, String.format("Untranslatable body type: %s", action.body().getClass().getName()));
+    return illegalAction(
+        action, "Untranslatable body type: %s", action.body().getClass().getName());
   }
 
   private Double senseDistanceToBody(SenseDistanceToBody action, Agent agent) {
     Ray ray =
-        new Ray(
-            Utils.point(action.body().poly().center()), action.direction() + action.body().angle());
-    List<RaycastResult<org.dyn4j.dynamics.Body, BodyFixture>> results =
-        world.raycast(
-            ray,
-            action.distanceRange(),
-            new DetectFilter<>(true, true, new BodyOwnerFilter(action.body())));
-    return results.stream()
-        .mapToDouble(r -> r.getRaycast().getDistance())
-        .min()
-        .orElse(action.distanceRange());
-  }
-
-  private Body translateBody(TranslateBody action, Agent agent) throws IllegalActionException {
+        new Ray(Utils.point(center(action.body())), action.direction() + action.body().angle());
+    return world.raycast(
+        ray,
+        action.distanceRange(),
+        new DetectFilter<>(true, true, new BodyOwnerFilter(action.body())),
+        action.body() instanceof MultipartBody multipartBody ? multipartBody : null);
+  }
+
+  private Body translateBody(TranslateBody action, Agent agent) {
     Point t = new Point(action.translation().x(), action.translation().y());
     if (action.body() instanceof MultipartBody multipartBody) {
       multipartBody.getBodies().forEach(b -> b.translate(t.x(), t.y()));
+      world.forEachReplica(multipartBody, b -> b.translate(t.x(), t.y()));
+      world.invalidate();
+      geometryVersion = geometryVersion + 1;
       return action.body();
     }
-    throw new IllegalActionException(
-        action, String.format("Untranslatable body type: %s", action.body().getClass().getName()));
+    return illegalAction(
+        action, "Untranslatable body type: %s", action.body().getClass().getName());
   }
 }
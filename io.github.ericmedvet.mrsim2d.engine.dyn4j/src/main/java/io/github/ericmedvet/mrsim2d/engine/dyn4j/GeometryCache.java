@@ -0,0 +1,49 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.engine.dyn4j;
+
+import java.util.function.LongSupplier;
+
+// tells a body if the geometry it computed is still valid, given a version which changes whenever
+// bodies may have moved (i.e., at every step, translation, rotation); without version, it never is
+public class GeometryCache {
+  private final LongSupplier versionSupplier;
+  private long version;
+  private boolean valid;
+
+  public GeometryCache(LongSupplier versionSupplier) {
+    this.versionSupplier = versionSupplier;
+  }
+
+  public boolean isValid() {
+    if (versionSupplier == null) {
+      return false;
+    }
+    long currentVersion = versionSupplier.getAsLong();
+    if (!valid || currentVersion != version) {
+      // the caller is going to recompute the geometry for the current version
+      version = currentVersion;
+      valid = true;
+      return false;
+    }
+    return true;
+  }
+}
@@ -20,12 +20,84 @@
 
 package io.github.ericmedvet.mrsim2d.engine.dyn4j;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Collection;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.joint.DistanceJoint;
 import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.geometry.Transform;
 
 public interface MultipartBody {
   Collection<Body> getBodies();
 
   Collection<Joint<Body>> getJoints();
+
+  // reads the state written by writeState(), which is applied only by running the returned runnable
+  default Runnable readState(DataInput in) throws IOException {
+    int nOfBodies = getBodies().size();
+    double[] bodyValues = new double[6 * nOfBodies];
+    boolean[] atRests = new boolean[nOfBodies];
+    for (int i = 0; i < nOfBodies; i++) {
+      for (int j = 0; j < 6; j++) {
+        bodyValues[6 * i + j] = in.readDouble();
+      }
+      atRests[i] = in.readBoolean();
+    }
+    double[] jointValues = new double[getJoints().size()];
+    int j = 0;
+    for (Joint<Body> joint : getJoints()) {
+      if (joint instanceof DistanceJoint<Body> || joint instanceof RevoluteJoint<Body>) {
+        jointValues[j] = in.readDouble();
+      }
+      j = j + 1;
+    }
+    return () -> {
+      int i = 0;
+      for (Body body : getBodies()) {
+        Transform transform = new Transform();
+        transform.setTranslation(bodyValues[6 * i], bodyValues[6 * i + 1]);
+        transform.setRotation(bodyValues[6 * i + 2]);
+        body.setTransform(transform);
+        body.setLinearVelocity(bodyValues[6 * i + 3], bodyValues[6 * i + 4]);
+        body.setAngularVelocity(bodyValues[6 * i + 5]);
+        body.setAtRest(atRests[i]);
+        body.clearAccumulatedForce();
+        body.clearAccumulatedTorque();
+        i = i + 1;
+      }
+      i = 0;
+      for (Joint<Body> joint : getJoints()) {
+        if (joint instanceof DistanceJoint<Body> distanceJoint) {
+          distanceJoint.setRestDistance(jointValues[i]);
+        } else if (joint instanceof RevoluteJoint<Body> revoluteJoint) {
+          revoluteJoint.setMotorSpeed(jointValues[i]);
+        }
+        i = i + 1;
+      }
+    };
+  }
+
+  // state which may change during the simulation: transforms, velocities, springs, and motors
+  default void writeState(DataOutput out) throws IOException {
+    for (Body body : getBodies()) {
+      Transform transform = body.getTransform();
+      out.writeDouble(transform.getTranslationX());
+      out.writeDouble(transform.getTranslationY());
+      out.writeDouble(transform.getRotationAngle());
+      out.writeDouble(body.getLinearVelocity().x);
+      out.writeDouble(body.getLinearVelocity().y);
+      out.writeDouble(body.getAngularVelocity());
+      out.writeBoolean(body.isAtRest());
+    }
+    for (Joint<Body> joint : getJoints()) {
+      if (joint instanceof DistanceJoint<Body> distanceJoint) {
+        out.writeDouble(distanceJoint.getRestDistance());
+      } else if (joint instanceof RevoluteJoint<Body> revoluteJoint) {
+        out.writeDouble(revoluteJoint.getMotorSpeed());
+      }
+    }
+  }
 }
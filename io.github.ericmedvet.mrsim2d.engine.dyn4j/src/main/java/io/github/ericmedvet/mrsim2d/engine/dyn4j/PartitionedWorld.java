@@ -0,0 +1,480 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-engine-dyn4j
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.engine.dyn4j;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
+import org.dyn4j.dynamics.Settings;
+import org.dyn4j.dynamics.joint.Joint;
+import org.dyn4j.dynamics.joint.RevoluteJoint;
+import org.dyn4j.dynamics.joint.WeldJoint;
+import org.dyn4j.geometry.AABB;
+import org.dyn4j.geometry.MassType;
+import org.dyn4j.geometry.Ray;
+import org.dyn4j.geometry.Vector2;
+import org.dyn4j.world.DetectFilter;
+import org.dyn4j.world.World;
+import org.dyn4j.world.result.RaycastResult;
+
+// a set of independent dyn4j worlds (islands) that are stepped in parallel: movable bodies which
+// may interact live in the same island, unmovable bodies are replicated in every island; islands
+// are recomputed only when bodies, links, or partitions change and, with auto partitioning, every
+// sweepInterval steps, hence margin has to cover the relative motion of bodies in that interval
+public class PartitionedWorld {
+
+  private static final int SWEEP_INTERVAL = 5;
+
+  private final Settings settings;
+  private final boolean autoPartitioning;
+  private final double margin;
+  private final int sweepInterval;
+  private final List<Island> islands;
+  private final Map<MultipartBody, Node> nodes;
+  private final Map<Joint<Body>, Integer> links;
+  private final List<UnmovableBody> unmovableBodies;
+  private final List<Node> sortedNodes;
+  private final List<ForkJoinTask<?>> stepTasks;
+  private final Map<Integer, Integer> firsts;
+  private int[] parents;
+  private int[] componentIslands;
+  private boolean partitioned;
+  private boolean dirty;
+  private int stepsSinceSweep;
+  private int velocitySolverIterations;
+  private int positionSolverIterations;
+
+  public PartitionedWorld(
+      Settings settings, boolean autoPartitioning, double margin, int sweepInterval) {
+    this.settings = settings;
+    this.autoPartitioning = autoPartitioning;
+    this.margin = margin;
+    this.sweepInterval = sweepInterval;
+    islands = new ArrayList<>();
+    nodes = new LinkedHashMap<>();
+    links = new LinkedHashMap<>();
+    unmovableBodies = new ArrayList<>();
+    sortedNodes = new ArrayList<>();
+    stepTasks = new ArrayList<>();
+    firsts = new HashMap<>();
+    parents = new int[0];
+    componentIslands = new int[0];
+    islands.add(new Island());
+  }
+
+  public PartitionedWorld(Settings settings, boolean autoPartitioning, double margin) {
+    this(settings, autoPartitioning, margin, SWEEP_INTERVAL);
+  }
+
+  private static final class Node {
+    private final MultipartBody body;
+    private int island;
+    private int partition;
+    private int index;
+    private double minX;
+    private double maxX;
+    private double minY;
+    private double maxY;
+
+    private Node(MultipartBody body) {
+      this.body = body;
+    }
+  }
+
+  private final class Island {
+    private final World<Body> world;
+    private final Map<UnmovableBody, List<Body>> replicas;
+    private int partition;
+    private int nOfBodies;
+
+    private Island() {
+      world = new World<>();
+      world.setSettings(settings);
+      if (velocitySolverIterations > 0) {
+        setSolverIterations(
+            world.getSettings(), velocitySolverIterations, positionSolverIterations);
+      }
+      replicas = new LinkedHashMap<>();
+    }
+
+    private void addReplicas(UnmovableBody unmovableBody) {
+      List<Body> replicaBodies = unmovableBody.getBodies().stream().map(b -> replica(b)).toList();
+      replicaBodies.forEach(world::addBody);
+      replicas.put(unmovableBody, replicaBodies);
+    }
+
+    private void removeReplicas(UnmovableBody unmovableBody) {
+      List<Body> replicaBodies = replicas.remove(unmovableBody);
+      if (replicaBodies != null) {
+        replicaBodies.forEach(world::removeBody);
+      }
+    }
+  }
+
+  private static MultipartBody owner(Body body) {
+    return (MultipartBody) body.getUserData();
+  }
+
+  private static Body replica(Body body) {
+    Body replica = new Body();
+    for (BodyFixture fixture : body.getFixtures()) {
+      // shapes are shared, since unmovable bodies are only moved through their transform
+      BodyFixture replicaFixture = new BodyFixture(fixture.getShape());
+      replicaFixture.setDensity(fixture.getDensity());
+      replicaFixture.setFriction(fixture.getFriction());
+      replicaFixture.setRestitution(fixture.getRestitution());
+      replicaFixture.setFilter(fixture.getFilter());
+      replica.addFixture(replicaFixture);
+    }
+    replica.setMass(MassType.INFINITE);
+    replica.setTransform(body.getTransform());
+    replica.setUserData(body.getUserData());
+    return replica;
+  }
+
+  private static void setSolverIterations(
+      Settings settings, int velocitySolverIterations, int positionSolverIterations) {
+    settings.setVelocityConstraintSolverIterations(velocitySolverIterations);
+    settings.setPositionConstraintSolverIterations(positionSolverIterations);
+  }
+
+  private static double error(Vector2 anchor1, Vector2 anchor2) {
+    return Math.hypot(anchor1.x - anchor2.x, anchor1.y - anchor2.y);
+  }
+
+  public void addBody(MultipartBody body) {
+    dirty = true;
+    if (body instanceof UnmovableBody unmovableBody) {
+      unmovableBodies.add(unmovableBody);
+      unmovableBody.getBodies().forEach(islands.get(0).world::addBody);
+      for (int i = 1; i < islands.size(); i = i + 1) {
+        islands.get(i).addReplicas(unmovableBody);
+      }
+    } else {
+      Node node = new Node(body);
+      nodes.put(body, node);
+      Island island = islands.get(0);
+      body.getBodies().forEach(island.world::addBody);
+      body.getJoints().forEach(island.world::addJoint);
+      island.nOfBodies = island.nOfBodies + 1;
+    }
+  }
+
+  public void addLink(Joint<Body> joint) {
+    dirty = true;
+    int island1 = islandIndex(owner(joint.getBody(0)));
+    int island2 = islandIndex(owner(joint.getBody(1)));
+    int island = Math.min(island1, island2);
+    if (island1 != island2) {
+      // merge the two islands, since now they are connected
+      int other = Math.max(island1, island2);
+      relocate(n -> n.island == other ? island : n.island);
+    }
+    islands.get(island).world.addJoint(joint);
+    links.put(joint, island);
+  }
+
+  public void assign(MultipartBody body, int partition) {
+    Node node = nodes.get(body);
+    if (node != null && node.partition != partition) {
+      node.partition = partition;
+      partitioned = partitioned || partition != 0;
+      dirty = true;
+    }
+  }
+
+  public int partition(MultipartBody body) {
+    Node node = nodes.get(body);
+    return node == null ? 0 : node.partition;
+  }
+
+  public void forEachReplica(MultipartBody body, Consumer<Body> consumer) {
+    if (body instanceof UnmovableBody unmovableBody) {
+      for (int i = 1; i < islands.size(); i = i + 1) {
+        islands.get(i).replicas.get(unmovableBody).forEach(consumer);
+      }
+    }
+  }
+
+  public List<Body> getInContactBodies(Body body) {
+    return islands.get(islandIndex(owner(body))).world.getInContactBodies(body, false);
+  }
+
+  private Island island(int index) {
+    while (islands.size() <= index) {
+      Island island = new Island();
+      unmovableBodies.forEach(island::addReplicas);
+      islands.add(island);
+    }
+    return islands.get(index);
+  }
+
+  private int islandIndex(MultipartBody body) {
+    Node node = nodes.get(body);
+    return node == null ? 0 : node.island;
+  }
+
+  public double raycast(
+      Ray ray, double length, DetectFilter<Body, BodyFixture> filter, MultipartBody body) {
+    // cast on all the islands of the same partition of the body, which also include replicas
+    Node node = nodes.get(body);
+    int ownIsland = node == null ? 0 : node.island;
+    int partition = node == null ? 0 : node.partition;
+    double distance = length;
+    for (int i = 0; i < islands.size(); i = i + 1) {
+      Island island = islands.get(i);
+      if (i == ownIsland || (island.nOfBodies > 0 && island.partition == partition)) {
+        for (RaycastResult<Body, BodyFixture> result : island.world.raycast(ray, length, filter)) {
+          distance = Math.min(distance, result.getRaycast().getDistance());
+        }
+      }
+    }
+    return distance;
+  }
+
+  private int find(int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  private void union(int i, int j) {
+    int rootI = find(i);
+    int rootJ = find(j);
+    // the lowest index is kept as root, for determinism
+    if (rootI < rootJ) {
+      parents[rootJ] = rootI;
+    } else if (rootJ < rootI) {
+      parents[rootI] = rootJ;
+    }
+  }
+
+  private void relocate(ToIntFunction<Node> target) {
+    // compute targets, creating islands if needed
+    for (Node node : nodes.values()) {
+      node.index = target.applyAsInt(node);
+      island(node.index);
+    }
+    // detach links of moving bodies
+    List<Joint<Body>> movingLinks = new ArrayList<>();
+    for (Map.Entry<Joint<Body>, Integer> entry : links.entrySet()) {
+      Node node = nodes.get(owner(entry.getKey().getBody(0)));
+      if (node == null) {
+        node = nodes.get(owner(entry.getKey().getBody(1)));
+      }
+      if (node != null && node.index != entry.getValue()) {
+        islands.get(entry.getValue()).world.removeJoint(entry.getKey());
+        entry.setValue(node.index);
+        movingLinks.add(entry.getKey());
+      }
+    }
+    // move bodies, together with their inner joints
+    for (Node node : nodes.values()) {
+      if (node.index != node.island) {
+        Island src = islands.get(node.island);
+        Island dst = islands.get(node.index);
+        node.body.getJoints().forEach(src.world::removeJoint);
+        node.body.getBodies().forEach(src.world::removeBody);
+        node.body.getBodies().forEach(dst.world::addBody);
+        node.body.getJoints().forEach(dst.world::addJoint);
+        src.nOfBodies = src.nOfBodies - 1;
+        dst.nOfBodies = dst.nOfBodies + 1;
+        node.island = node.index;
+      }
+    }
+    // reattach links
+    movingLinks.forEach(j -> islands.get(links.get(j)).world.addJoint(j));
+  }
+
+  private void repartition() {
+    int n = nodes.size();
+    if (parents.length < n + 1) {
+      parents = new int[2 * (n + 1)];
+      componentIslands = new int[2 * (n + 1)];
+    }
+    sortedNodes.clear();
+    sortedNodes.addAll(nodes.values());
+    for (int i = 0; i < n; i = i + 1) {
+      sortedNodes.get(i).index = i;
+      parents[i] = i;
+    }
+    // the last element represents unmovable bodies, whose originals are in the first island
+    parents[n] = n;
+    // bodies connected by links stay together
+    for (Joint<Body> joint : links.keySet()) {
+      Node node1 = nodes.get(owner(joint.getBody(0)));
+      Node node2 = nodes.get(owner(joint.getBody(1)));
+      union(node1 == null ? n : node1.index, node2 == null ? n : node2.index);
+    }
+    if (autoPartitioning) {
+      // bodies of the same partition which are close stay together: sort and sweep on x
+      for (Node node : sortedNodes) {
+        node.minX = Double.POSITIVE_INFINITY;
+        node.maxX = Double.NEGATIVE_INFINITY;
+        node.minY = Double.POSITIVE_INFINITY;
+        node.maxY = Double.NEGATIVE_INFINITY;
+        for (Body body : node.body.getBodies()) {
+          AABB aabb = body.createAABB();
+          node.minX = Math.min(node.minX, aabb.getMinX() - margin);
+          node.maxX = Math.max(node.maxX, aabb.getMaxX() + margin);
+          node.minY = Math.min(node.minY, aabb.getMinY() - margin);
+          node.maxY = Math.max(node.maxY, aabb.getMaxY() + margin);
+        }
+      }
+      sortedNodes.sort(
+          Comparator.comparingDouble((Node node) -> node.minX)
+              .thenComparingInt(node -> node.index));
+      for (int i = 0; i < n; i = i + 1) {
+        Node node = sortedNodes.get(i);
+        for (int j = i + 1; j < n && sortedNodes.get(j).minX <= node.maxX; j = j + 1) {
+          Node other = sortedNodes.get(j);
+          if (node.partition == other.partition
+              && node.minY <= other.maxY
+              && other.minY <= node.maxY) {
+            union(node.index, other.index);
+          }
+        }
+      }
+    } else {
+      // bodies of the same partition stay together
+      firsts.clear();
+      for (Node node : nodes.values()) {
+        Integer first = firsts.putIfAbsent(node.partition, node.index);
+        union(first == null ? node.index : first, node.index);
+      }
+    }
+    // assign islands to components, in order of their first body, trying to keep current islands
+    Arrays.fill(componentIslands, 0, n + 1, -1);
+    islands.forEach(island -> island.partition = -1);
+    for (Node node : nodes.values()) {
+      if (find(node.index) == find(n)) {
+        componentIslands[find(n)] = 0;
+        islands.get(0).partition = 0;
+        break;
+      }
+    }
+    for (Node node : nodes.values()) {
+      int root = find(node.index);
+      if (componentIslands[root] == -1) {
+        int index = node.island;
+        if (islands.get(index).partition != -1) {
+          index = 0;
+          while (index < islands.size() && islands.get(index).partition != -1) {
+            index = index + 1;
+          }
+        }
+        island(index).partition = node.partition;
+        componentIslands[root] = index;
+      }
+    }
+    relocate(node -> componentIslands[find(node.index)]);
+  }
+
+  // to be called when bodies are moved other than by stepping, e.g., translated or restored
+  public void invalidate() {
+    dirty = true;
+  }
+
+  public void step() {
+    if (autoPartitioning) {
+      stepsSinceSweep = stepsSinceSweep + 1;
+      if (dirty || stepsSinceSweep >= sweepInterval) {
+        repartition();
+        stepsSinceSweep = 0;
+        dirty = false;
+      }
+    } else if (partitioned && dirty) {
+      repartition();
+      dirty = false;
+    }
+    if (islands.size() == 1) {
+      islands.get(0).world.step(1);
+      return;
+    }
+    // islands do not share any mutable state, hence the outcome does not depend on scheduling
+    stepTasks.clear();
+    for (int i = 0; i < islands.size(); i = i + 1) {
+      Island island = islands.get(i);
+      if (i == 0 || island.nOfBodies > 0) {
+        stepTasks.add(ForkJoinTask.adapt(() -> island.world.step(1)));
+      }
+    }
+    ForkJoinTask.invokeAll(stepTasks);
+  }
+
+  // largest distance between the anchors of rigid joints, which should coincide; spring joints are
+  // meant to stretch, hence they are not considered
+  public double maxJointError() {
+    double maxError = 0d;
+    for (Island island : islands) {
+      for (Joint<Body> joint : island.world.getJoints()) {
+        if (joint instanceof RevoluteJoint<Body> revoluteJoint) {
+          maxError =
+              Math.max(maxError, error(revoluteJoint.getAnchor1(), revoluteJoint.getAnchor2()));
+        } else if (joint instanceof WeldJoint<Body> weldJoint) {
+          maxError = Math.max(maxError, error(weldJoint.getAnchor1(), weldJoint.getAnchor2()));
+        }
+      }
+    }
+    return maxError;
+  }
+
+  public void setSolverIterations(int velocitySolverIterations, int positionSolverIterations) {
+    this.velocitySolverIterations = velocitySolverIterations;
+    this.positionSolverIterations = positionSolverIterations;
+    islands.forEach(
+        island ->
+            setSolverIterations(
+                island.world.getSettings(), velocitySolverIterations, positionSolverIterations));
+  }
+
+  public void removeBody(MultipartBody body) {
+    dirty = true;
+    if (body instanceof UnmovableBody unmovableBody) {
+      unmovableBodies.remove(unmovableBody);
+      unmovableBody.getBodies().forEach(islands.get(0).world::removeBody);
+      for (int i = 1; i < islands.size(); i = i + 1) {
+        islands.get(i).removeReplicas(unmovableBody);
+      }
+    } else {
+      Node node = nodes.remove(body);
+      if (node != null) {
+        Island island = islands.get(node.island);
+        body.getJoints().forEach(island.world::removeJoint);
+        body.getBodies().forEach(island.world::removeBody);
+        island.nOfBodies = island.nOfBodies - 1;
+      }
+    }
+  }
+
+  public void removeLink(Joint<Body> joint) {
+    dirty = true;
+    Integer island = links.remove(joint);
+    if (island != null) {
+      islands.get(island).world.removeJoint(joint);
+    }
+  }
+}
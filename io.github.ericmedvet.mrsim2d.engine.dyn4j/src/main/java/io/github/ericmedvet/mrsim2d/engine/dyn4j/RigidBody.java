@@ -25,6 +25,7 @@ import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import io.github.ericmedvet.mrsim2d.core.geometry.Segment;
 import java.util.*;
+import java.util.function.LongSupplier;
 import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.joint.Joint;
 import org.dyn4j.geometry.MassType;
@@ -39,6 +40,10 @@ public class RigidBody
   private final double mass;
   private final Vector2 initialFirstSideDirection;
   private final List<Anchor> anchors;
+  private final List<Body> bodies;
+  private final GeometryCache geometryCache;
+  private final double[] vertexCoordinates;
+  private Poly poly;
 
   public RigidBody(
       Poly convexPoly,
@@ -48,14 +53,19 @@ public class RigidBody
       double restitution,
       double linearDamping,
       double angularDamping,
-      double anchorSideDistance) {
+      double anchorSideDistance,
+      LongSupplier geometryVersion) {
     this.mass = mass;
+    geometryCache = new GeometryCache(geometryVersion);
     body = new Body();
     body.addFixture(Utils.poly(convexPoly), mass / convexPoly.area(), friction, restitution);
+    vertexCoordinates =
+        new double[((Polygon) body.getFixture(0).getShape()).getVertices().length * 2];
     body.setMass(MassType.NORMAL);
     body.setLinearDamping(linearDamping);
     body.setAngularDamping(angularDamping);
     body.setUserData(this);
+    bodies = List.of(body);
     initialFirstSideDirection = getFirstSideDirection();
     if (Double.isFinite(anchorsDensity)) {
       List<Anchor> localAnchors = new ArrayList<>();
@@ -75,6 +85,27 @@ public class RigidBody
     }
   }
 
+  public RigidBody(
+      Poly convexPoly,
+      double mass,
+      double anchorsDensity,
+      double friction,
+      double restitution,
+      double linearDamping,
+      double angularDamping,
+      double anchorSideDistance) {
+    this(
+        convexPoly,
+        mass,
+        anchorsDensity,
+        friction,
+        restitution,
+        linearDamping,
+        angularDamping,
+        anchorSideDistance,
+        null);
+  }
+
   @Override
   public List<Anchor> anchors() {
     return anchors;
@@ -98,21 +129,44 @@ public class RigidBody
 
   @Override
   public Poly poly() {
+    updateVertexCoordinates();
+    if (poly == null) {
+      Point[] points = new Point[vertexCoordinates.length / 2];
+      for (int i = 0; i < points.length; i = i + 1) {
+        points[i] = new Point(vertexCoordinates[2 * i], vertexCoordinates[2 * i + 1]);
+      }
+      poly = new Poly(points);
+    }
+    return poly;
+  }
+
+  @Override
+  public int nOfVertexes() {
+    return vertexCoordinates.length / 2;
+  }
+
+  @Override
+  public void fillVertices(double[] xy, int offset) {
+    updateVertexCoordinates();
+    System.arraycopy(vertexCoordinates, 0, xy, offset, vertexCoordinates.length);
+  }
+
+  private void updateVertexCoordinates() {
+    if (geometryCache.isValid()) {
+      return;
+    }
     Transform t = body.getTransform();
-    return new Poly(
-        Arrays.stream(((Polygon) body.getFixture(0).getShape()).getVertices())
-            .map(
-                v -> {
-                  Vector2 cv = v.copy();
-                  t.transform(cv);
-                  return Utils.point(cv);
-                })
-            .toArray(Point[]::new));
+    Vector2[] vertices = ((Polygon) body.getFixture(0).getShape()).getVertices();
+    for (int i = 0; i < vertices.length; i = i + 1) {
+      vertexCoordinates[2 * i] = t.getTransformedX(vertices[i]);
+      vertexCoordinates[2 * i + 1] = t.getTransformedY(vertices[i]);
+    }
+    poly = null;
   }
 
   @Override
   public Collection<Body> getBodies() {
-    return List.of(body);
+    return bodies;
   }
 
   @Override
@@ -25,7 +25,11 @@ import io.github.ericmedvet.mrsim2d.core.geometry.Path;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import io.github.ericmedvet.mrsim2d.core.geometry.Segment;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.LongSupplier;
 import java.util.stream.IntStream;
 import org.dyn4j.dynamics.Body;
 import org.dyn4j.dynamics.joint.Joint;
@@ -54,10 +58,17 @@ public class RotationalJoint
   private final List<Anchor> anchors;
   private final Vector2 initialRefDirection;
   private final DoubleRange jointActiveAngleRange;
+  private final List<Body> bodies;
+  private final List<Joint<Body>> joints;
+  private final GeometryCache geometryCache;
+  private final double[] vertexCoordinates;
 
   private double jointTargetAngle;
   private double angleErrorSummation;
   private double lastAngleError;
+  private Poly poly;
+  private ActuationKernel actuationKernel;
+  private int motorSlot;
 
   public RotationalJoint(
       double length,
@@ -69,7 +80,8 @@ public class RotationalJoint
       double restitution,
       double linearDamping,
       double angularDamping,
-      double anchorSideDistance) {
+      double anchorSideDistance,
+      LongSupplier geometryVersion) {
     // check length and with consistency
     if (length < width) {
       throw new IllegalArgumentException(
@@ -79,6 +91,8 @@ public class RotationalJoint
     this.mass = mass;
     this.motor = motor;
     this.jointActiveAngleRange = jointActiveAngleRange;
+    geometryCache = new GeometryCache(geometryVersion);
+    vertexCoordinates = new double[20];
     jointLength = Math.sqrt(2d) * width / 2d;
     // create bodies
     Poly poly1 =
@@ -117,6 +131,8 @@ public class RotationalJoint
     }
     joint.setMotorEnabled(true);
     joint.setMaximumMotorTorque(motor.maxTorque());
+    bodies = List.of(body1, body2);
+    joints = List.of(joint);
     // create anchors
     List<Anchor> localAnchors = new ArrayList<>();
     List.of(0, 1, 3, 4)
@@ -146,6 +162,31 @@ public class RotationalJoint
     lastAngleError = 0;
   }
 
+  public RotationalJoint(
+      double length,
+      double width,
+      double mass,
+      Motor motor,
+      DoubleRange jointActiveAngleRange,
+      double friction,
+      double restitution,
+      double linearDamping,
+      double angularDamping,
+      double anchorSideDistance) {
+    this(
+        length,
+        width,
+        mass,
+        motor,
+        jointActiveAngleRange,
+        friction,
+        restitution,
+        linearDamping,
+        angularDamping,
+        anchorSideDistance,
+        null);
+  }
+
   private static Body createBody(
       double mass,
       double friction,
@@ -176,8 +217,11 @@ public class RotationalJoint
             .toArray(Point[]::new));
   }
 
-  @Override
+  // used when the joint is not attached to a kernel
   public void actuate(double t, double lastT) {
+    if (actuationKernel != null) {
+      throw new IllegalStateException("Joint is actuated by the kernel it is attached to");
+    }
     // compute things
     double dT = t - lastT;
     double angleError = jointTargetAngle - jointAngle();
@@ -202,6 +246,64 @@ public class RotationalJoint
     joint.setMotorSpeed(motorSpeed);
   }
 
+  @Override
+  public void attach(ActuationKernel actuationKernel) {
+    motorSlot =
+        actuationKernel.addMotor(
+            joint,
+            motor.controlP(),
+            motor.controlI(),
+            motor.controlD(),
+            motor.angleTolerance(),
+            motor.maxSpeed(),
+            jointTargetAngle,
+            angleErrorSummation,
+            lastAngleError);
+    this.actuationKernel = actuationKernel;
+  }
+
+  @Override
+  public void detach() {
+    // control state is brought back from the kernel
+    jointTargetAngle = actuationKernel.motorTarget(motorSlot);
+    angleErrorSummation = actuationKernel.motorErrorSum(motorSlot);
+    lastAngleError = actuationKernel.motorLastError(motorSlot);
+    actuationKernel.removeMotor(motorSlot);
+    actuationKernel = null;
+  }
+
+  @Override
+  public Runnable readState(DataInput in) throws IOException {
+    Runnable partsRestorer = MultipartBody.super.readState(in);
+    double targetAngle = in.readDouble();
+    double errorSummation = in.readDouble();
+    double lastError = in.readDouble();
+    return () -> {
+      partsRestorer.run();
+      jointTargetAngle = targetAngle;
+      angleErrorSummation = errorSummation;
+      lastAngleError = lastError;
+      if (actuationKernel != null) {
+        actuationKernel.setMotorState(
+            motorSlot, jointTargetAngle, angleErrorSummation, lastAngleError);
+      }
+    };
+  }
+
+  @Override
+  public void writeState(DataOutput out) throws IOException {
+    MultipartBody.super.writeState(out);
+    if (actuationKernel != null) {
+      out.writeDouble(actuationKernel.motorTarget(motorSlot));
+      out.writeDouble(actuationKernel.motorErrorSum(motorSlot));
+      out.writeDouble(actuationKernel.motorLastError(motorSlot));
+    } else {
+      out.writeDouble(jointTargetAngle);
+      out.writeDouble(angleErrorSummation);
+      out.writeDouble(lastAngleError);
+    }
+  }
+
   @Override
   public List<Anchor> anchors() {
     return anchors;
@@ -226,26 +328,55 @@ public class RotationalJoint
 
   @Override
   public Poly poly() {
-    Point[] ps1 = polyFromBody(body1).vertexes();
-    Point[] ps2 = polyFromBody(body2).vertexes();
-    Point[] ps = new Point[10];
-    for (int i = 0; i < 5; i++) {
-      ps[i] = ps1[polyIndexes.get(0).get(i)];
+    updateVertexCoordinates();
+    if (poly == null) {
+      Point[] ps = new Point[vertexCoordinates.length / 2];
+      for (int i = 0; i < ps.length; i++) {
+        ps[i] = new Point(vertexCoordinates[2 * i], vertexCoordinates[2 * i + 1]);
+      }
+      poly = new Poly(ps);
     }
-    for (int i = 0; i < 5; i++) {
-      ps[i + 5] = ps2[polyIndexes.get(1).get(i)];
+    return poly;
+  }
+
+  @Override
+  public int nOfVertexes() {
+    return vertexCoordinates.length / 2;
+  }
+
+  @Override
+  public void fillVertices(double[] xy, int offset) {
+    updateVertexCoordinates();
+    System.arraycopy(vertexCoordinates, 0, xy, offset, vertexCoordinates.length);
+  }
+
+  private void updateVertexCoordinates() {
+    if (geometryCache.isValid()) {
+      return;
+    }
+    updateVertexCoordinates(body1, polyIndexes.get(0), 0);
+    updateVertexCoordinates(body2, polyIndexes.get(1), polyIndexes.get(0).size());
+    poly = null;
+  }
+
+  private void updateVertexCoordinates(Body body, List<Integer> indexes, int offset) {
+    Transform t = body.getTransform();
+    Vector2[] vertices = ((Polygon) body.getFixture(0).getShape()).getVertices();
+    for (int i = 0; i < indexes.size(); i++) {
+      Vector2 v = vertices[indexes.get(i)];
+      vertexCoordinates[2 * (offset + i)] = t.getTransformedX(v);
+      vertexCoordinates[2 * (offset + i) + 1] = t.getTransformedY(v);
     }
-    return new Poly(ps);
   }
 
   @Override
   public Collection<Body> getBodies() {
-    return List.of(body1, body2);
+    return bodies;
   }
 
   @Override
   public Collection<Joint<Body>> getJoints() {
-    return List.of(joint);
+    return joints;
   }
 
   private Vector2 getRefDirection() {
@@ -283,11 +414,15 @@ public class RotationalJoint
 
   @Override
   public double jointTargetAngle() {
-    return jointTargetAngle;
+    return actuationKernel == null ? jointTargetAngle : actuationKernel.motorTarget(motorSlot);
   }
 
   protected void setJointTargetAngle(double jointTargetAngle) {
-    this.jointTargetAngle = jointActiveAngleRange().clip(jointTargetAngle);
+    if (actuationKernel == null) {
+      this.jointTargetAngle = jointActiveAngleRange().clip(jointTargetAngle);
+    } else {
+      actuationKernel.setMotorTarget(motorSlot, jointActiveAngleRange().clip(jointTargetAngle));
+    }
   }
 
   @Override
@@ -24,12 +24,11 @@ import io.github.ericmedvet.mrsim2d.core.bodies.Anchor;
 import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import io.github.ericmedvet.mrsim2d.core.geometry.Segment;
-import io.github.ericmedvet.mrsim2d.core.util.Pair;
 import java.util.*;
 import org.dyn4j.dynamics.AbstractPhysicsBody;
 import org.dyn4j.dynamics.Body;
+import org.dyn4j.dynamics.BodyFixture;
 import org.dyn4j.dynamics.joint.Joint;
-import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.MassType;
 
 public class UnmovableBody
@@ -48,19 +47,16 @@ public class UnmovableBody
       double restitution,
       double anchorSideDistance) {
     this.poly = poly;
-    List<Poly> parts = (poly.vertexes().length > 3) ? Utils.decompose(poly) : List.of(poly);
-    List<Pair<Body, Poly>> bodyPairs =
-        parts.stream()
+    bodies =
+        DecompositionCache.shared().convexes(poly).stream()
             .map(
-                c -> {
-                  Convex convex = Utils.poly(c);
+                convex -> {
                   Body body = new Body();
                   body.addFixture(convex, 1d, friction, restitution);
                   body.setMass(MassType.INFINITE);
-                  return new Pair<>(body, c);
+                  return body;
                 })
             .toList();
-    bodies = bodyPairs.stream().map(Pair::first).toList();
     initialCenter = center(bodies);
     bodies.forEach(b -> b.setUserData(this));
     if (Double.isFinite(anchorsDensity)) {
@@ -86,6 +82,38 @@ public class UnmovableBody
     }
   }
 
+  // copy sharing the shapes of the other body, as they are never modified
+  public UnmovableBody(UnmovableBody other) {
+    poly = other.poly;
+    bodies =
+        other.bodies.stream()
+            .map(
+                b -> {
+                  Body body = new Body();
+                  for (BodyFixture fixture : b.getFixtures()) {
+                    body.addFixture(
+                        fixture.getShape(),
+                        fixture.getDensity(),
+                        fixture.getFriction(),
+                        fixture.getRestitution());
+                  }
+                  body.setMass(MassType.INFINITE);
+                  body.setUserData(this);
+                  return body;
+                })
+            .toList();
+    initialCenter = center(bodies);
+    anchors =
+        other.anchors.stream()
+            .map(
+                a -> {
+                  BodyAnchor anchor = (BodyAnchor) a;
+                  int index = other.bodies.indexOf(anchor.getBody());
+                  return (Anchor) anchor.copy(bodies.get(index), this);
+                })
+            .toList();
+  }
+
   private static Point center(List<Body> bodies) {
     return Point.average(
         bodies.stream()
@@ -26,7 +26,7 @@ import io.github.ericmedvet.mrsim2d.core.geometry.Point;
 import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
 import java.util.*;
 import java.util.function.DoubleFunction;
-import java.util.stream.Collectors;
+import java.util.function.LongSupplier;
 import java.util.stream.Stream;
 import org.dyn4j.collision.Filter;
 import org.dyn4j.dynamics.Body;
@@ -37,12 +37,15 @@ import org.dyn4j.geometry.Convex;
 import org.dyn4j.geometry.MassType;
 import org.dyn4j.geometry.Vector2;
 
-public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, MultipartBody {
+public class Voxel
+    implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, MultipartBody, Actuable {
 
   protected static final DoubleRange SPRING_F_RANGE = new DoubleRange(2d, 10d);
   protected static final double SPRING_D = 0.3d;
   private static final double CENTRAL_MASS_RATIO = 0.5d;
   private static final DoubleFunction<Convex> MASS_SHAPE_PROVIDER = l -> new Circle(l / 2d);
+  private static final Vertex[] VERTEXES = Vertex.values();
+  private static final Side[] SIDES = Side.values();
   protected final Map<Vertex, Body> vertexes;
   protected final List<Body> otherBodies;
   protected final Map<Side, List<DistanceJoint<Body>>> sideJoints;
@@ -59,6 +62,14 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
   private final DoubleRange areaRatioActiveRange;
   private final EnumSet<SpringScaffolding> springScaffoldings;
   private final Vector2 initialSidesAverageDirection;
+  private final GeometryCache geometryCache;
+  private final double[] vertexCoordinates;
+  private List<Body> bodies;
+  private List<Joint<Body>> joints;
+  private Poly poly;
+  private ActuationKernel actuationKernel;
+  private int[] sideSlots;
+  private int centralSlot;
 
   public Voxel(
       double sideLength,
@@ -70,7 +81,8 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
       double angularDamping,
       double vertexMassSideLengthRatio,
       DoubleRange areaRatioActiveRange,
-      EnumSet<SpringScaffolding> springScaffoldings) {
+      EnumSet<SpringScaffolding> springScaffoldings,
+      LongSupplier geometryVersion) {
     this.sideLength = sideLength;
     this.mass = mass;
     this.friction = friction;
@@ -81,18 +93,45 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
     this.vertexMassSideLengthRatio = vertexMassSideLengthRatio;
     this.areaRatioActiveRange = areaRatioActiveRange;
     this.springScaffoldings = springScaffoldings;
+    geometryCache = new GeometryCache(geometryVersion);
+    vertexCoordinates = new double[VERTEXES.length * 2];
     vertexes = new EnumMap<>(Vertex.class);
     sideJoints = new EnumMap<>(Side.class);
     otherBodies = new ArrayList<>();
     Arrays.stream(Side.values()).forEach(s -> sideJoints.put(s, new ArrayList<>()));
     centralJoints = new ArrayList<>();
     assemble();
-    anchors =
-        vertexes.entrySet().stream()
-            .collect(Collectors.toMap(Map.Entry::getKey, e -> new BodyAnchor(e.getValue(), this)));
+    // enum keyed, so that anchors are listed in the same order in every run
+    anchors = new EnumMap<>(Vertex.class);
+    vertexes.forEach((v, b) -> anchors.put(v, new BodyAnchor(b, this)));
     initialSidesAverageDirection = getSidesAverageDirection();
   }
 
+  public Voxel(
+      double sideLength,
+      double mass,
+      double friction,
+      double restitution,
+      double softness,
+      double linearDamping,
+      double angularDamping,
+      double vertexMassSideLengthRatio,
+      DoubleRange areaRatioActiveRange,
+      EnumSet<SpringScaffolding> springScaffoldings) {
+    this(
+        sideLength,
+        mass,
+        friction,
+        restitution,
+        softness,
+        linearDamping,
+        angularDamping,
+        vertexMassSideLengthRatio,
+        areaRatioActiveRange,
+        springScaffoldings,
+        null);
+  }
+
   private enum BodyType {
     VERTEX,
     CENTRAL
@@ -136,24 +175,78 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   protected void actuate(EnumMap<Side, Double> sideValues) {
     // apply on sides
+    double sum = 0d;
     for (Map.Entry<Side, Double> sideEntry : sideValues.entrySet()) {
       double v = DoubleRange.SYMMETRIC_UNIT.clip(sideEntry.getValue());
-      for (DistanceJoint<Body> joint : sideJoints.get(sideEntry.getKey())) {
-        Voxel.SpringRange range = (SpringRange) joint.getUserData();
-        if (v >= 0) { // shrink
-          joint.setRestDistance(range.rest - (range.rest - range.min) * v);
-        } else if (v < 0) { // expand
-          joint.setRestDistance(range.rest + (range.max - range.rest) * -v);
-        }
-      }
+      actuate(sideEntry.getKey(), v);
+      sum = sum + v;
     }
     // apply on central
-    double v =
-        sideValues.values().stream()
-            .mapToDouble(d -> DoubleRange.SYMMETRIC_UNIT.clip(d))
-            .average()
-            .orElse(0d);
-    for (DistanceJoint<Body> joint : centralJoints) {
+    actuateCentral(sideValues.isEmpty() ? 0d : sum / sideValues.size());
+  }
+
+  protected void actuate(double nValue, double eValue, double sValue, double wValue) {
+    nValue = DoubleRange.SYMMETRIC_UNIT.clip(nValue);
+    eValue = DoubleRange.SYMMETRIC_UNIT.clip(eValue);
+    sValue = DoubleRange.SYMMETRIC_UNIT.clip(sValue);
+    wValue = DoubleRange.SYMMETRIC_UNIT.clip(wValue);
+    // apply on sides
+    actuate(Side.N, nValue);
+    actuate(Side.E, eValue);
+    actuate(Side.S, sValue);
+    actuate(Side.W, wValue);
+    // apply on central
+    actuateCentral((nValue + eValue + sValue + wValue) / 4d);
+  }
+
+  private void actuate(Side side, double v) {
+    if (actuationKernel == null) {
+      actuate(sideJoints.get(side), v);
+    } else {
+      actuationKernel.actuateSprings(sideSlots[side.ordinal()], sideJoints.get(side).size(), v);
+    }
+  }
+
+  private void actuateCentral(double v) {
+    if (actuationKernel == null) {
+      actuate(centralJoints, v);
+    } else {
+      actuationKernel.actuateSprings(centralSlot, centralJoints.size(), v);
+    }
+  }
+
+  private static int addSprings(
+      ActuationKernel actuationKernel, List<DistanceJoint<Body>> springJoints) {
+    int slot = actuationKernel.addSprings(springJoints.size());
+    for (int i = 0; i < springJoints.size(); i++) {
+      DistanceJoint<Body> joint = springJoints.get(i);
+      SpringRange range = (SpringRange) joint.getUserData();
+      actuationKernel.setSpring(slot + i, joint, range.min, range.rest, range.max);
+    }
+    return slot;
+  }
+
+  @Override
+  public void attach(ActuationKernel actuationKernel) {
+    sideSlots = new int[SIDES.length];
+    for (Side side : SIDES) {
+      sideSlots[side.ordinal()] = addSprings(actuationKernel, sideJoints.get(side));
+    }
+    centralSlot = addSprings(actuationKernel, centralJoints);
+    this.actuationKernel = actuationKernel;
+  }
+
+  @Override
+  public void detach() {
+    for (Side side : SIDES) {
+      actuationKernel.removeSprings(sideSlots[side.ordinal()], sideJoints.get(side).size());
+    }
+    actuationKernel.removeSprings(centralSlot, centralJoints.size());
+    actuationKernel = null;
+  }
+
+  private static void actuate(List<DistanceJoint<Body>> joints, double v) {
+    for (DistanceJoint<Body> joint : joints) {
       Voxel.SpringRange range = (SpringRange) joint.getUserData();
       if (v >= 0) { // shrink
         joint.setRestDistance(range.rest - (range.rest - range.min) * v);
@@ -180,11 +273,7 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   @Override
   public Point vertex(Vertex vertex) {
-    List<Point> centers =
-        vertexes.values().stream().map(b -> Utils.point(b.getWorldCenter())).toList();
-    Point c = Point.average(centers.toArray(Point[]::new));
-    double d = sideLength * vertexMassSideLengthRatio / 2d * Math.sqrt(2d);
-    return enlongForm(c, Utils.point(vertexes.get(vertex).getWorldCenter()), d);
+    return poly().vertexes()[vertex.ordinal()];
   }
 
   @SuppressWarnings({"unchecked", "rawtypes"})
@@ -217,11 +306,53 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
 
   @Override
   public Poly poly() {
-    List<Point> centers =
-        vertexes.values().stream().map(b -> Utils.point(b.getWorldCenter())).toList();
-    Point c = Point.average(centers.toArray(Point[]::new));
+    updateVertexCoordinates();
+    if (poly == null) {
+      Point[] points = new Point[VERTEXES.length];
+      for (int i = 0; i < points.length; i = i + 1) {
+        points[i] = new Point(vertexCoordinates[2 * i], vertexCoordinates[2 * i + 1]);
+      }
+      poly = new Poly(points);
+    }
+    return poly;
+  }
+
+  @Override
+  public int nOfVertexes() {
+    return vertexCoordinates.length / 2;
+  }
+
+  @Override
+  public void fillVertices(double[] xy, int offset) {
+    updateVertexCoordinates();
+    System.arraycopy(vertexCoordinates, 0, xy, offset, vertexCoordinates.length);
+  }
+
+  private void updateVertexCoordinates() {
+    if (geometryCache.isValid()) {
+      return;
+    }
+    // vertexes are the centers of vertex bodies, moved away from the center of the voxel
+    double cX = 0d;
+    double cY = 0d;
+    for (int i = 0; i < VERTEXES.length; i = i + 1) {
+      Vector2 center = vertexes.get(VERTEXES[i]).getWorldCenter();
+      vertexCoordinates[2 * i] = center.x;
+      vertexCoordinates[2 * i + 1] = center.y;
+      cX = cX + center.x;
+      cY = cY + center.y;
+    }
+    cX = cX / VERTEXES.length;
+    cY = cY / VERTEXES.length;
     double d = sideLength * vertexMassSideLengthRatio / 2d * Math.sqrt(2d);
-    return new Poly(centers.stream().map(vc -> enlongForm(c, vc, d)).toArray(Point[]::new));
+    for (int i = 0; i < VERTEXES.length; i = i + 1) {
+      double x = vertexCoordinates[2 * i];
+      double y = vertexCoordinates[2 * i + 1];
+      double direction = Math.atan2(y - cY, x - cX);
+      vertexCoordinates[2 * i] = x + Math.cos(direction) * d;
+      vertexCoordinates[2 * i + 1] = y + Math.sin(direction) * d;
+    }
+    poly = null;
   }
 
   protected void assemble() {
@@ -560,7 +691,8 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
       }
     }
     // set collision filter
-    getBodies()
+    vertexes
+        .values()
         .forEach(
             b -> b.getFixtures().forEach(f -> f.setFilter(new VoxelFilter(this, BodyType.VERTEX))));
     // add central mass
@@ -588,44 +720,41 @@ public class Voxel implements io.github.ericmedvet.mrsim2d.core.bodies.Voxel, Mu
         centralJoints.add(joint);
       }
     }
+    // bodies and joints do not change after assembly
+    bodies = Stream.of(vertexes.values(), otherBodies).flatMap(Collection::stream).toList();
+    joints =
+        Stream.of(
+                sideJoints.get(Side.N),
+                sideJoints.get(Side.E),
+                sideJoints.get(Side.S),
+                sideJoints.get(Side.W),
+                centralJoints)
+            .flatMap(Collection::stream)
+            .<Joint<Body>>map(j -> j)
+            .toList();
     // setup spring joints
-    getJoints()
-        .forEach(
-            j -> {
-              if (j instanceof DistanceJoint<Body> joint) {
-                joint.setRestDistance(((SpringRange) joint.getUserData()).rest);
-                joint.setCollisionAllowed(true);
-                joint.setFrequency(SPRING_F_RANGE.denormalize(softness));
-                joint.setDampingRatio(SPRING_D);
-              }
-            });
+    joints.forEach(
+        j -> {
+          if (j instanceof DistanceJoint<Body> joint) {
+            joint.setRestDistance(((SpringRange) joint.getUserData()).rest);
+            joint.setCollisionAllowed(true);
+            joint.setFrequency(SPRING_F_RANGE.denormalize(softness));
+            joint.setDampingRatio(SPRING_D);
+          }
+        });
     // set user data
     vertexes.values().forEach(b -> b.setUserData(this));
     otherBodies.forEach(b -> b.setUserData(this));
   }
 
-  private Point enlongForm(Point src, Point dst, double d) {
-    return dst.sum(new Point(dst.diff(src).direction()).scale(d));
-  }
-
   @Override
   public Collection<Body> getBodies() {
-    return Stream.of(vertexes.values(), otherBodies).flatMap(Collection::stream).toList();
+    return bodies;
   }
 
-  @SuppressWarnings({"unchecked", "rawtypes"})
   @Override
   public Collection<Joint<Body>> getJoints() {
-    List<DistanceJoint<Body>> allJoints =
-        Stream.of(
-                sideJoints.get(Side.N),
-                sideJoints.get(Side.E),
-                sideJoints.get(Side.S),
-                sideJoints.get(Side.W),
-                centralJoints)
-            .flatMap(Collection::stream)
-            .toList();
-    return (List) allJoints;
+    return joints;
   }
 
   private Vector2 getSidesAverageDirection() {
@@ -18,6 +18,7 @@
  * =========================LICENSE_END==================================
  */
 import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.engine.dyn4j.ActuationKernel;
 import io.github.ericmedvet.mrsim2d.engine.dyn4j.Dyn4JEngine;
 
 module io.github.ericmedvet.mrsim2d.engine.dyn4j {
@@ -27,8 +28,11 @@ module io.github.ericmedvet.mrsim2d.engine.dyn4j {
   requires io.github.ericmedvet.jsdynsym.core;
   requires java.desktop;
 
+  uses ActuationKernel;
+
   provides Engine with
       Dyn4JEngine;
 
+  exports io.github.ericmedvet.mrsim2d.engine.dyn4j;
   exports io.github.ericmedvet.mrsim2d.engine.dyn4j.drawers;
 }
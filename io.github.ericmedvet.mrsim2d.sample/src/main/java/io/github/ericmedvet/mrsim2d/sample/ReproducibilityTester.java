@@ -0,0 +1,190 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-sample
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.sample;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Poly;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.BatchRunner;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.Task;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.MultiLocomotion;
+import io.github.ericmedvet.mrsim2d.core.tasks.piling.FallPiling;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// runs the same tasks many times, first in one thread and then in many threads through a
+// BatchRunner, and checks that all the trajectories are bit-identical; tasks are a plain
+// locomotion, a multi locomotion (agents in partitions stepped in parallel), and a fall piling
+// drawing from the engine random generator
+public class ReproducibilityTester {
+
+  private static final Logger L = Logger.getLogger(ReproducibilityTester.class.getName());
+
+  private static final double DURATION = 10;
+  private static final int N_OF_AGENTS = 4;
+
+  public static void main(String[] args) throws IOException {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    String agentName = args.length >= 1 ? args[0] : "biped-vsr-centralized-mlp";
+    int nOfThreads =
+        args.length >= 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int nOfRuns = args.length >= 3 ? Integer.parseInt(args[2]) : 2 * nOfThreads;
+    InputStream inputStream =
+        ReproducibilityTester.class.getResourceAsStream("/agents/%s.txt".formatted(agentName));
+    if (inputStream == null) {
+      L.severe("Cannot find agent description \"%s\"".formatted(agentName));
+      System.exit(-1);
+    }
+    String agentDescription;
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+      agentDescription = br.lines().collect(Collectors.joining());
+    }
+    Terrain terrain = (Terrain) nb.build("s.t.flat()");
+    // agents are built here, since the builder is not meant to be used concurrently
+    IntFunction<List<EmbodiedAgent>> agentsBuilder =
+        n -> {
+          List<EmbodiedAgent> agents = new ArrayList<>();
+          for (int i = 0; i < n; i++) {
+            agents.add((EmbodiedAgent) nb.build(agentDescription));
+          }
+          return agents;
+        };
+    long nOfMismatches = 0;
+    try {
+      nOfMismatches =
+          nOfMismatches
+              + check(
+                  "locomotion",
+                  new Locomotion(DURATION, terrain),
+                  () -> supplier(agentsBuilder.apply(1)),
+                  ReproducibilityTester::hash,
+                  nOfRuns,
+                  nOfThreads);
+      nOfMismatches =
+          nOfMismatches
+              + check(
+                  "multi-locomotion",
+                  new MultiLocomotion(DURATION, terrain),
+                  () ->
+                      agentsBuilder.apply(N_OF_AGENTS).stream()
+                          .map(a -> (Supplier<EmbodiedAgent>) () -> a)
+                          .toList(),
+                  os ->
+                      os.stream()
+                          .mapToLong(ReproducibilityTester::hash)
+                          .reduce(17, (h1, h2) -> 31 * h1 + h2),
+                  nOfRuns,
+                  nOfThreads);
+      nOfMismatches =
+          nOfMismatches
+              + check(
+                  "fall-piling",
+                  new FallPiling(
+                      DURATION, DURATION / N_OF_AGENTS, N_OF_AGENTS, 0.1, null, terrain, 1, 10),
+                  () -> supplier(agentsBuilder.apply(N_OF_AGENTS)),
+                  ReproducibilityTester::hash,
+                  nOfRuns,
+                  nOfThreads);
+    } catch (InterruptedException | ExecutionException e) {
+      L.severe("Cannot run the task: %s".formatted(e));
+      System.exit(-1);
+    }
+    if (nOfMismatches > 0) {
+      System.exit(1);
+    }
+  }
+
+  // the first input is run in this thread, the others in a batch runner
+  private static <A, O> long check(
+      String name,
+      Task<A, O> task,
+      Supplier<A> inputSupplier,
+      ToLongFunction<O> hasher,
+      int nOfRuns,
+      int nOfThreads)
+      throws InterruptedException, ExecutionException {
+    List<A> inputs = new ArrayList<>();
+    for (int i = 0; i < nOfRuns + 1; i++) {
+      inputs.add(inputSupplier.get());
+    }
+    long referenceHash = hasher.applyAsLong(task.run(inputs.get(0), engine()));
+    List<O> outcomes;
+    try (BatchRunner<A, O> batchRunner =
+        new BatchRunner<>(task, ReproducibilityTester::engine, nOfThreads)) {
+      outcomes =
+          batchRunner.run(
+              inputs.subList(1, inputs.size()).stream()
+                  .map(input -> (Supplier<A>) () -> input)
+                  .toList());
+    }
+    long nOfMismatches =
+        outcomes.stream().filter(o -> hasher.applyAsLong(o) != referenceHash).count();
+    System.out.printf(
+        "%s: reference hash %016x, %d/%d runs in %d threads differ%n",
+        name, referenceHash, nOfMismatches, nOfRuns, nOfThreads);
+    return nOfMismatches;
+  }
+
+  private static Engine engine() {
+    return ServiceLoader.load(Engine.class).findFirst().orElseThrow();
+  }
+
+  // hash of the exact bits of every observed vertex
+  private static long hash(Outcome<AgentsObservation> outcome) {
+    long h = 17;
+    for (Map.Entry<Double, AgentsObservation> entry : outcome.getObservations().entrySet()) {
+      h = 31 * h + Double.doubleToLongBits(entry.getKey());
+      for (AgentsObservation.Agent agent : entry.getValue().getAgents()) {
+        for (Poly poly : agent.polies()) {
+          for (Point vertex : poly.vertexes()) {
+            h = 31 * h + Double.doubleToLongBits(vertex.x());
+            h = 31 * h + Double.doubleToLongBits(vertex.y());
+          }
+        }
+      }
+    }
+    return h;
+  }
+
+  // gives the agents in order, one per invocation, as tasks with many agents need
+  private static Supplier<EmbodiedAgent> supplier(List<EmbodiedAgent> agents) {
+    Iterator<EmbodiedAgent> iterator = agents.iterator();
+    return iterator::next;
+  }
+}
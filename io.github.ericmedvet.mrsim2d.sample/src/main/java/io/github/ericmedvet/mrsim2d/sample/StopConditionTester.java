@@ -0,0 +1,183 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-sample
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+package io.github.ericmedvet.mrsim2d.sample;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.Action;
+import io.github.ericmedvet.mrsim2d.core.ActionOutcome;
+import io.github.ericmedvet.mrsim2d.core.ActionPerformer;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
+import io.github.ericmedvet.mrsim2d.core.bodies.Body;
+import io.github.ericmedvet.mrsim2d.core.engine.ActionException;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import io.github.ericmedvet.mrsim2d.core.tasks.AgentsObservation;
+import io.github.ericmedvet.mrsim2d.core.tasks.Outcome;
+import io.github.ericmedvet.mrsim2d.core.tasks.StopCondition;
+import io.github.ericmedvet.mrsim2d.core.tasks.locomotion.Locomotion;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+// runs locomotions with stop conditions and checks that stopped runs are not rewarded: an agent
+// teleported far away (as an exploded one) is stopped without its last position being observed,
+// runs stopped before the transient give 0, and a named threshold can be updated by the caller
+public class StopConditionTester {
+
+  private static final double DURATION = 20;
+  private static final double EXPLOSION_T = 5;
+  private static final double TRANSIENT_TIME = 5;
+  private static final Logger L = Logger.getLogger(StopConditionTester.class.getName());
+
+  // an agent which is moved very far at a given time, as it happens to agents exploding because of
+  // numerical instability
+  private record ExplodingAgent(EmbodiedAgent inner, double explosionT) implements EmbodiedAgent {
+    @Override
+    public void assemble(ActionPerformer actionPerformer) throws ActionException {
+      inner.assemble(actionPerformer);
+    }
+
+    @Override
+    public List<Body> bodyParts() {
+      return inner.bodyParts();
+    }
+
+    @Override
+    public List<? extends Action<?>> act(
+        double t, List<ActionOutcome<?, ?>> previousActionOutcomes) {
+      List<Action<?>> actions = new ArrayList<>(inner.act(t, previousActionOutcomes));
+      if (t >= explosionT) {
+        actions.add(new TranslateAgent(this, new Point(1e7, 0)));
+      }
+      return actions;
+    }
+  }
+
+  public static void main(String[] args) throws IOException {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    String agentName = args.length >= 1 ? args[0] : "biped-vsr-centralized-mlp";
+    InputStream inputStream =
+        StopConditionTester.class.getResourceAsStream("/agents/%s.txt".formatted(agentName));
+    if (inputStream == null) {
+      L.severe("Cannot find agent description \"%s\"".formatted(agentName));
+      System.exit(-1);
+    }
+    String agentDescription;
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+      agentDescription = br.lines().collect(Collectors.joining());
+    }
+    Terrain terrain = (Terrain) nb.build("s.t.flat()");
+    @SuppressWarnings("unchecked")
+    Function<Outcome<?>, Double> xDistance =
+        (Function<Outcome<?>, Double>) nb.build("s.task.l.xDistance()");
+    @SuppressWarnings("unchecked")
+    Function<Outcome<?>, Double> xVelocity =
+        (Function<Outcome<?>, Double>)
+            nb.build("s.task.l.xVelocity(transientTime=%f)".formatted(TRANSIENT_TIME));
+    int nOfFailures = 0;
+    // an exploded agent is stopped and gets neither a huge nor a NaN distance
+    Outcome<AgentsObservation> outcome =
+        run(
+            terrain,
+            StopCondition.notFinite(1e6),
+            new ExplodingAgent((EmbodiedAgent) nb.build(agentDescription), EXPLOSION_T));
+    nOfFailures =
+        nOfFailures
+            + check(
+                "exploding agent",
+                outcome,
+                o ->
+                    o.stop().isPresent()
+                        && Double.isFinite(xDistance.apply(o))
+                        && Math.abs(xDistance.apply(o)) < 1e3
+                        && Math.abs(xVelocity.apply(o)) < 1e3,
+                xDistance,
+                xVelocity);
+    // a run stopped before the end of the transient gives 0, without failing
+    outcome =
+        run(terrain, StopCondition.noProgress(1, 1e3), (EmbodiedAgent) nb.build(agentDescription));
+    nOfFailures =
+        nOfFailures
+            + check(
+                "stopped before transient",
+                outcome,
+                o -> o.stop().isPresent() && xVelocity.apply(o) == 0d,
+                xDistance,
+                xVelocity);
+    // a threshold which cannot be reached stops the run at the first observation
+    StopCondition.Threshold.named(StopConditionTester.class.getSimpleName()).set(1e3);
+    outcome =
+        run(
+            terrain,
+            StopCondition.xDistanceBound(
+                1, StopCondition.Threshold.named(StopConditionTester.class.getSimpleName())),
+            (EmbodiedAgent) nb.build(agentDescription));
+    nOfFailures =
+        nOfFailures
+            + check(
+                "unreachable threshold",
+                outcome,
+                o -> o.stop().isPresent() && o.isEmpty() && xDistance.apply(o) == 0d,
+                xDistance,
+                xVelocity);
+    if (nOfFailures > 0) {
+      System.exit(1);
+    }
+  }
+
+  private static int check(
+      String name,
+      Outcome<AgentsObservation> outcome,
+      Predicate<Outcome<AgentsObservation>> predicate,
+      Function<Outcome<?>, Double> xDistance,
+      Function<Outcome<?>, Double> xVelocity) {
+    boolean ok = predicate.test(outcome);
+    System.out.printf(
+        "%s: %s, stop=%s, xDistance=%.3f, xVelocity=%.3f%n",
+        name,
+        ok ? "ok" : "FAILED",
+        outcome.stop().map(Outcome.Stop::toString).orElse("none"),
+        xDistance.apply(outcome),
+        xVelocity.apply(outcome));
+    return ok ? 0 : 1;
+  }
+
+  private static Engine engine() {
+    return ServiceLoader.load(Engine.class).findFirst().orElseThrow();
+  }
+
+  private static Outcome<AgentsObservation> run(
+      Terrain terrain, StopCondition stopCondition, EmbodiedAgent agent) {
+    Locomotion locomotion =
+        new Locomotion(DURATION, terrain, 1, 0.1, Set.of(), Set.of(), stopCondition, 0d);
+    return locomotion.run(() -> agent, engine());
+  }
+}
@@ -0,0 +1,106 @@
+/*-
+ * ========================LICENSE_START=================================
+ * mrsim2d-sample
+ * %%
+ * Copyright (C) 2020 - 2023 Eric Medvet
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * =========================LICENSE_END==================================
+ */
+
+package io.github.ericmedvet.mrsim2d.sample;
+
+import io.github.ericmedvet.jnb.core.NamedBuilder;
+import io.github.ericmedvet.mrsim2d.core.EmbodiedAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.AddAgent;
+import io.github.ericmedvet.mrsim2d.core.actions.CreateUnmovableBody;
+import io.github.ericmedvet.mrsim2d.core.actions.TranslateAgent;
+import io.github.ericmedvet.mrsim2d.core.engine.Engine;
+import io.github.ericmedvet.mrsim2d.core.engine.SnapshotPolicy;
+import io.github.ericmedvet.mrsim2d.core.geometry.BoundingBox;
+import io.github.ericmedvet.mrsim2d.core.geometry.Point;
+import io.github.ericmedvet.mrsim2d.core.geometry.Terrain;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ServiceLoader;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+public class TickAllocationTester {
+
+  private static final Logger L = Logger.getLogger(TickAllocationTester.class.getName());
+
+  private static final int WARMUP_TICKS = 2000;
+  private static final int MEASURED_TICKS = 10000;
+
+  public static void main(String[] args) throws IOException {
+    NamedBuilder<Object> nb = NamedBuilder.fromDiscovery();
+    String agentName = args.length >= 1 ? args[0] : "biped-vsr-centralized-mlp";
+    InputStream inputStream =
+        TickAllocationTester.class.getResourceAsStream("/agents/%s.txt".formatted(agentName));
+    if (inputStream == null) {
+      L.severe("Cannot find agent description \"%s\"".formatted(agentName));
+      System.exit(-1);
+    }
+    String agentDescription;
+    try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream))) {
+      agentDescription = br.lines().collect(Collectors.joining());
+    }
+    // prepare engine
+    Engine engine = ServiceLoader.load(Engine.class).findFirst().orElseThrow();
+    if (args.length >= 2) {
+      engine.setSnapshotPolicy(
+          switch (args[1]) {
+            case "none" -> SnapshotPolicy.NONE;
+            case "on-demand" -> SnapshotPolicy.ON_DEMAND;
+            default -> SnapshotPolicy.FULL;
+          });
+    }
+    Terrain terrain = (Terrain) nb.build("s.t.flat()");
+    EmbodiedAgent agent = (EmbodiedAgent) nb.build(agentDescription);
+    engine.perform(new CreateUnmovableBody(terrain.poly()));
+    engine.perform(new AddAgent(agent));
+    BoundingBox agentBB = agent.boundingBox();
+    engine.perform(
+        new TranslateAgent(
+            agent,
+            new Point(
+                terrain.withinBordersXRange().min() + 1 - agentBB.min().x(),
+                terrain.maxHeightAt(agentBB.xRange()) + 0.25 - agentBB.min().y())));
+    // measure
+    com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int i = 0; i < WARMUP_TICKS; i++) {
+      engine.tick();
+    }
+    long startingBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+    long startingNanos = System.nanoTime();
+    for (int i = 0; i < MEASURED_TICKS; i++) {
+      engine.tick();
+    }
+    long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - startingBytes;
+    double elapsedSeconds = (System.nanoTime() - startingNanos) / 1000000000d;
+    System.out.printf(
+        "%s (%s snapshots): %d ticks in %.3fs, %.1f B/tick, %.1f MB/s%n",
+        agentName,
+        engine.snapshotPolicy().type().name().toLowerCase(),
+        MEASURED_TICKS,
+        elapsedSeconds,
+        (double) allocatedBytes / MEASURED_TICKS,
+        allocatedBytes / elapsedSeconds / 1024d / 1024d);
+  }
+}
@@ -21,6 +21,7 @@ import io.github.ericmedvet.mrsim2d.core.engine.Engine;
 
 module io.github.ericmedvet.mrsim2d.sample {
   requires java.logging;
+  requires jdk.management;
 
   uses Engine;
 